@@ -31,9 +31,9 @@ import ph.extremelogic.libcaption.cea708.Cea708Data;
 import ph.extremelogic.libcaption.model.MpegBitStream;
 import ph.extremelogic.libcaption.model.Sei;
 import ph.extremelogic.libcaption.model.SeiMessage;
-import ph.extremelogic.texttrack.utils.ArrayUtil;
 import ph.extremelogic.texttrack.utils.Debug;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -63,39 +63,44 @@ public class Mpeg {
      * @return The offset within the array where the emulation prevention byte is found, or the input size if none.
      */
     public static int findEmulationPreventionByte(byte[] data, int size) {
-        int offset = 2;
+        return findEmulationPreventionByte(data, 0, size);
+    }
+
+    /**
+     * Finds and returns the position of the next emulation prevention byte in a range of the provided byte array.
+     *
+     * @param data The byte array containing the data to scan.
+     * @param offset The offset of the first byte to scan.
+     * @param size The number of bytes to scan.
+     * @return The position of the emulation prevention byte relative to {@code offset}, or the input size if none.
+     */
+    public static int findEmulationPreventionByte(byte[] data, int offset, int size) {
+        int index = 2;
 
         Debug.print("DEBUG " + size + " _find_emulation_prevention_byte input: ");
-        Debug.printDataArray(data, size);
+        Debug.printDataArray(data, offset, Math.min(size, data.length - offset));
 
-        while (offset < size) {
-            int currentByte = data[offset] & 0xFF;
-            int prevByte1 = data[offset - 1] & 0xFF;
-            int prevByte2 = data[offset - 2] & 0xFF;
+        while (index < size && offset + index < data.length) {
+            int currentByte = data[offset + index] & 0xFF;
+            int prevByte1 = data[offset + index - 1] & 0xFF;
+            int prevByte2 = data[offset + index - 2] & 0xFF;
 
             if (currentByte == 0) {
                 // 0 0 X 3 //; we know X is zero
-                offset += 1;
-                Debug.print(" offset 1 " + offset);
+                index += 1;
             } else if (currentByte != 3) {
                 // 0 0 X 0 0 3; we know X is not 0 and not 3
-                offset += 3;
-                Debug.print(" offset 2 " + offset);
+                index += 3;
             } else if (prevByte1 != 0) {
                 // 0 X 0 0 3
-                offset += 2;
-                Debug.print(" offset 3 " + offset);
+                index += 2;
             } else if (prevByte2 != 0) {
                 // X 0 0 3
-                offset += 1;
-                Debug.print(" offset 4 " + offset);
+                index += 1;
             } else {
                 // 0 0 3
-                Debug.print(" offset 5 " + offset);
-                return offset;
-            }
-            if (offset >= data.length) {
-                break;
+                Debug.print(" offset " + index);
+                return index;
             }
         }
         Debug.print(" return " + size);
@@ -103,46 +108,30 @@ public class Mpeg {
     }
 
     /**
-     * Copies data from source to destination while handling emulation prevention bytes.
+     * Points the payload of an SEI message at its raw byte sequence payload. A payload without emulation
+     * prevention bytes is referenced in place; any other payload is unescaped into the payload buffer of the SEI.
      *
-     * @param destData The destination array where data will be copied.
-     * @param destOffset The starting position in the destination array.
-     * @param destSize The maximum number of bytes to copy to the destination array.
-     * @param srcData The source array from which to copy data.
-     * @param srcOffset The starting position in the source array.
-     * @param srcSize The number of bytes available to copy from the source array.
-     * @return The total number of bytes copied to the destination array.
+     * @param sei The SEI owning the message.
+     * @param msg The message, whose size has been set.
+     * @param data The array containing the escaped payload.
+     * @param offset The position of the first payload byte.
+     * @param size The number of bytes left in the SEI NAL unit from {@code offset}.
+     * @return The number of bytes consumed, or 0 if the SEI NAL unit is too short for the payload.
      */
-    private static int copyToRbsp(byte[] destData, int destOffset, int destSize, byte[] srcData, int srcOffset, int srcSize) {
-        Debug.print("copy_to_rbsp [START] <<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
-        Debug.print(" - destSize: " + destSize);
-        Debug.print(" - sorcSize: " + srcSize);
-        int toCopy;
-        int totalSize = 0;
-        int loop = 0;
-
-        while (true) {
-            if (destSize >= srcSize) {
-                return 0;
-            }
-
-            toCopy = findEmulationPreventionByte(srcData, destSize);
-            Debug.print("    DEBUG " + loop++ + " bytes to copy: " + toCopy);
-            System.arraycopy(srcData, srcOffset - 2, destData, destOffset, toCopy);
-
-            totalSize += toCopy;
-            destOffset += toCopy;
-            destSize -= toCopy;
-
-            if (destSize == 0) {
-                return totalSize;
-            }
-
-            // Skip the emulation prevention byte
-            totalSize += 1;
-            srcOffset += toCopy + 1;
-            srcSize -= toCopy + 1;
+    private static int readRbsp(Sei sei, SeiMessage msg, byte[] data, int offset, int size) {
+        int payloadSize = msg.getSize();
+        if (payloadSize < size && Rbsp.indexOfEmulationPreventionByte(data, offset, payloadSize) < 0) {
+            msg.setPayload(data);
+            msg.setOffset(offset);
+            return payloadSize;
         }
+
+        int rbspOffset = sei.reserveRbsp(payloadSize);
+        byte[] rbsp = sei.getRbsp();
+        Arrays.fill(rbsp, rbspOffset, rbspOffset + payloadSize, (byte) 0);
+        msg.setPayload(rbsp);
+        msg.setOffset(rbspOffset);
+        return Rbsp.unescapePayload(data, offset, size, rbsp, rbspOffset, payloadSize);
     }
 
     /**
@@ -155,84 +144,73 @@ public class Mpeg {
      * @return The status of the parsing process, either OK or ERROR.
      */
     public static LibCaptionStatus seiParse(Sei sei, byte[] data, int size, double timestamp) {
+        return seiParse(sei, data, 0, size, timestamp);
+    }
+
+    /**
+     * Parses every SEI message of an SEI NAL unit payload in a single pass over the given range of the data array.
+     * The payloads of the parsed messages are views into {@code data} whenever no emulation prevention byte has
+     * to be removed, so the array must not be modified while they are in use.
+     *
+     * @param sei The SEI object to update with parsed messages.
+     * @param data The data array containing the SEI messages.
+     * @param offset The offset of the first byte of the SEI messages in the array.
+     * @param size The number of bytes of SEI messages, including the trailing bits.
+     * @param timestamp The timestamp to assign to parsed SEI messages.
+     * @return The status of the parsing process, either OK or ERROR.
+     */
+    public static LibCaptionStatus seiParse(Sei sei, byte[] data, int offset, int size, double timestamp) {
         Debug.print("DEBUG sei_parse");
         sei.init(timestamp);
-        int dataOffset = 0;
+        int end = offset + size;
 
         // SEI may contain more than one payload
-        while (size > 1) {
+        while (end - offset > 1) {
             int payloadType = 0;
             int payloadSize = 0;
-            Debug.printDataArray(data, size);
+            Debug.printDataArray(data, offset, end - offset);
 
             // Read payloadType
-            while (size > 0 && (data[dataOffset] & 0xFF) == 255) {
+            while (offset < end && (data[offset] & 0xFF) == 255) {
                 payloadType += 255;
-                dataOffset++;
-                size--;
+                offset++;
             }
-            Debug.print("DEBUG A payload type: " + payloadSize + " size " + size);
-            Debug.printDataArray(data, size);
 
-            if (size == 0) {
+            if (offset == end) {
                 return LibCaptionStatus.ERROR;
             }
 
-            payloadType += (data[dataOffset] & 0xFF);
-            dataOffset++;
-            data = ArrayUtil.shiftLeftAndShrink(data);
-            size--;
-            Debug.print("DEBUG B payload type: " + payloadSize + " size " + size);
-            Debug.printDataArray(data, size);
+            payloadType += data[offset++] & 0xFF;
 
             // Read payloadSize
-            while (size > 0 && (data[dataOffset] & 0xFF) == 255) {
+            while (offset < end && (data[offset] & 0xFF) == 255) {
                 payloadSize += 255;
-                dataOffset++;
-                data = ArrayUtil.shiftLeftAndShrink(data);
-                size--;
+                offset++;
             }
-            Debug.print("DEBUG C payload type: " + payloadSize + " size " + size);
-            Debug.printDataArray(data, size);
 
-            if (size == 0) {
+            if (offset == end) {
                 return LibCaptionStatus.ERROR;
             }
 
-            payloadSize += (data[dataOffset - 1] & 0xFF);
-            dataOffset++;
-            data = ArrayUtil.shiftLeftAndShrink(data);
-            size--;
-            Debug.print("DEBUG D payload type: " + payloadSize + " size " + size);
-            Debug.printDataArray(data, size);
-
+            payloadSize += data[offset++] & 0xFF;
+            Debug.print("payload type " + payloadType);
             Debug.print("payload size " + payloadSize);
 
             if (payloadSize > 0) {
-                // Create new sei_message_t
-                SeiMessage msg = new SeiMessage();
+                SeiMessage msg = sei.addMessage();
                 msg.setNext(null);
                 msg.setType(SeiMessageType.fromValue(payloadType));
                 msg.setSize(payloadSize);
-                Debug.print("payload type " + msg.getType().getValue());
-                Debug.print("payload size " + msg.getSize());
-                msg.setPayload(new byte[payloadSize]);
 
-                // Copy data to payload using copy_to_rbsp
-                Debug.printDataArray(data, size);
-                int bytes = copyToRbsp(msg.getPayload(), 0, payloadSize, data, dataOffset, size);
+                int bytes = readRbsp(sei, msg, data, offset, end - offset);
                 Debug.print("DEBUG bytes " + bytes);
-                Debug.printDataArray(msg.getPayload(), payloadSize);
-                Debug.print("copy_to_rbsp [END] <<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
-
-                sei.getMessages().add(msg);
+                Debug.printDataArray(msg.getPayload(), msg.getOffset(), payloadSize);
 
                 if (bytes < payloadSize) {
                     return LibCaptionStatus.ERROR;
                 }
 
-                dataOffset += bytes;
-                size -= bytes;
+                offset += bytes;
             }
         }
 
@@ -253,13 +231,130 @@ public class Mpeg {
      * @return The number of bytes processed in the current batch.
      */
     public static int mpegBitStreamParse(MpegBitStream packet, CaptionFrame frame, byte[] data, int size, int streamType, double dts, double cts) {
+        return mpegBitStreamParse(packet, frame, data, 0, size, streamType, dts, cts);
+    }
+
+    /**
+     * Parses MPEG bitstream data starting at the given offset of a byte array, handling SEI messages
+     * and updating caption frame data.
+     *
+     * @param packet The MPEG bitstream packet to process.
+     * @param frame The caption frame to update with parsed data.
+     * @param data The byte array containing MPEG data.
+     * @param offset The offset of the first byte to process within the array.
+     * @param size The size of the data to process.
+     * @param streamType The type of MPEG stream being processed (e.g., H264).
+     * @param dts Decoding time stamp for synchronization.
+     * @param cts Composition time stamp for display timing.
+     * @return The number of bytes processed in the current batch.
+     */
+    public static int mpegBitStreamParse(MpegBitStream packet, CaptionFrame frame, byte[] data, int offset, int size, int streamType, double dts, double cts) {
+        return mpegBitStreamParse(packet, frame, ByteBuffer.wrap(data), offset, size, streamType, dts, cts);
+    }
+
+    /**
+     * Parses MPEG bitstream data read directly from a view over a buffer, such as the payload exposed by
+     * {@link TransportSystem#getPayload()}, handling SEI messages and updating caption frame data.
+     * The buffer's position and limit are left untouched.
+     *
+     * @param packet The MPEG bitstream packet to process.
+     * @param frame The caption frame to update with parsed data.
+     * @param data The buffer containing MPEG data.
+     * @param offset The absolute offset of the first byte to process within the buffer.
+     * @param size The size of the data to process.
+     * @param streamType The type of MPEG stream being processed (e.g., H264).
+     * @param dts Decoding time stamp for synchronization.
+     * @param cts Composition time stamp for display timing.
+     * @return The number of bytes processed in the current batch.
+     */
+    public static int mpegBitStreamParse(MpegBitStream packet, CaptionFrame frame, ByteBuffer data, int offset, int size, int streamType, double dts, double cts) {
+        int skipped = 0;
+        if (packet.isSkipping()) {
+            skipped = skipNalus(packet, data, offset, size);
+            if (packet.isSkipping()) {
+                packet.setStatus(LibCaptionStatus.OK);
+                return skipped;
+            }
+            offset += skipped;
+            size -= skipped;
+        }
+
+        size = acceptSize(packet, size);
+        if (size < 0) {
+            return skipped;
+        }
+
+        data.get(offset, packet.getNaluData(), packet.reserve(size), size);
+        return skipped + parseNalus(packet, frame, size, streamType, dts, cts);
+    }
+
+    /**
+     * Scans the bytes of NAL units that carry no captions for the next start code without buffering them.
+     * Scanning stops right after the header of the first SEI NAL unit found, which the bitstream then starts
+     * buffering; the start code may have begun in a previously scanned payload.
+     *
+     * @param packet The MPEG bitstream packet, which must be skipping.
+     * @param data The buffer containing MPEG data.
+     * @param offset The absolute offset of the first byte to scan within the buffer.
+     * @param size The number of bytes to scan.
+     * @return The number of bytes scanned, up to and including the header of an SEI NAL unit.
+     */
+    private static int skipNalus(MpegBitStream packet, ByteBuffer data, int offset, int size) {
+        int zeroRun = packet.getZeroRun();
+        int end = offset + size;
+        int i = offset;
+        while (i < end) {
+            if (zeroRun == 0) {
+                int scpos = StartCodeScanner.find(data, i, end);
+                if (scpos < 0) {
+                    while (zeroRun < 2 && end - zeroRun > i && data.get(end - zeroRun - 1) == 0) {
+                        zeroRun++;
+                    }
+                    break;
+                }
+                i = scpos + 3;
+                zeroRun = -1;
+                continue;
+            }
+
+            // Finish the start code begun at the end of the previous payload, or read the NAL unit header
+            byte b = data.get(i);
+            if (zeroRun < 0) {
+                if ((b & 0x1F) == H264_SEI_PACKET) {
+                    packet.beginNalu(b);
+                    return i + 1 - offset;
+                }
+                zeroRun = 0;
+                continue;
+            }
+            if (b == 0) {
+                zeroRun = Math.min(zeroRun + 1, 2);
+            } else if (b == 1 && zeroRun == 2) {
+                zeroRun = -1;
+            } else {
+                zeroRun = 0;
+            }
+            i++;
+        }
+        packet.setZeroRun(zeroRun);
+        return size;
+    }
+
+    /**
+     * Limits the number of bytes that can be appended to the NALU buffer of the bitstream.
+     *
+     * @param packet The MPEG bitstream packet to append to.
+     * @param size The number of bytes offered.
+     * @return The number of bytes to append, or {@code -1} if the buffer is already full.
+     */
+    private static int acceptSize(MpegBitStream packet, int size) {
         Debug.print("mpeg_bitstream_parse");
         Debug.print("MAX_NALU_SIZE: " + MAX_NALU_SIZE);
         Debug.print("packet size: " + packet.getSize());
         if (MAX_NALU_SIZE <= packet.getSize()) {
             packet.setStatus(LibCaptionStatus.ERROR);
             Debug.print("LIBCAPTION_ERROR");
-            return 0;
+            return -1;
         }
 
         // Consume up to MAX_NALU_SIZE bytes
@@ -267,15 +362,27 @@ public class Mpeg {
             size = MAX_NALU_SIZE - packet.getSize();
             Debug.print("Consume up to MAX_NALU_SIZE");
         }
+        return size;
+    }
 
-        Sei seiMsgHolder = new Sei(dts + cts);
+    /**
+     * Processes the NAL units accumulated in the bitstream after {@code size} new bytes have been appended.
+     *
+     * @param packet The MPEG bitstream packet to process.
+     * @param frame The caption frame to update with parsed data.
+     * @param size The number of bytes just appended to the NALU buffer.
+     * @param streamType The type of MPEG stream being processed (e.g., H264).
+     * @param dts Decoding time stamp for synchronization.
+     * @param cts Composition time stamp for display timing.
+     * @return The number of bytes processed in the current batch.
+     */
+    private static int parseNalus(MpegBitStream packet, CaptionFrame frame, int size, int streamType, double dts, double cts) {
         LibCaptionStatus newPacketStatus;
 
         int headerSize;
         int scpos;
 
         packet.setStatus(LibCaptionStatus.OK);
-        System.arraycopy(data, 0, packet.getNaluData(), packet.getSize(), size);
         packet.setSize(packet.getSize() + size);
 
         headerSize = 4;
@@ -284,27 +391,32 @@ public class Mpeg {
         Debug.print("Before loop");
         while (packet.getStatus() == LibCaptionStatus.OK) {
             Debug.print("loop: " + index++);
-            Debug.printDataArray(data, size);
+            byte[] naluData = packet.getNaluData();
+            int start = packet.getStart();
+            int end = start + packet.getSize();
+            Debug.printDataArray(naluData, start, packet.getSize());
             Debug.print("packet size: " + packet.getSize());
-            scpos = findStartCode(packet.getNaluData(), packet.getSize());
-            if (scpos <= headerSize) {
+
+            // Resume the search where the previous call stopped instead of rescanning the pending NAL unit
+            scpos = findStartCode(naluData, Math.max(packet.getScanOffset(), start + 1), end);
+            if (scpos < 0) {
+                packet.setScanOffset(Math.max(start + 1, end - 3));
                 break;
             }
+            scpos -= start;
 
-            if ((packet.getSize() > 4) && ((packet.getNaluData()[3] & 0x1F) == H264_SEI_PACKET)) {
-                byte[] seiData = Arrays.copyOfRange(packet.getNaluData(), headerSize, scpos);
+            if (scpos > headerSize && ((naluData[start + 3] & 0x1F) == H264_SEI_PACKET)) {
                 Debug.print("H264_SEI_PACKET");
-                newPacketStatus = seiParse(seiMsgHolder, seiData, scpos - headerSize, dts + cts);
+                Sei sei = packet.getSei();
+                newPacketStatus = seiParse(sei, naluData, start + headerSize, scpos - headerSize, dts + cts);
                 packet.setStatus(CaptionFrame.statusUpdate(packet.getStatus(), newPacketStatus));
 
                 int count = 0;
                 int count2 = 0;
 
-                //for (mpeg_header.sei_message_t msg : seiMsgHolder.messages)
-                {
-                    SeiMessage msg = seiMsgHolder.getMessages().get(0);
+                for (SeiMessage msg : sei.getMessages()) {
                     Debug.print("msg type: " + msg.getType().getValue());
-                    if (msg != null && msg.getType() == SeiMessageType.SEI_TYPE_USER_DATA_REGISTERED_ITU_T_T_35) {
+                    if (msg.getType() == SeiMessageType.SEI_TYPE_USER_DATA_REGISTERED_ITU_T_T_35) {
                         System.out.println("count=" + count++);
 
                         // Emplace back
@@ -313,8 +425,11 @@ public class Mpeg {
 
                         cea708Data.init(dts + cts);
 
-                        newPacketStatus = Cea708.parseH264(msg.getPayload(), msg.getSize(), cea708Data);
+                        newPacketStatus = Cea708.parseH264(msg.getPayload(), msg.getOffset(), msg.getSize(), cea708Data);
                         packet.setStatus(CaptionFrame.statusUpdate(packet.getStatus(), newPacketStatus));
+                        if (newPacketStatus == LibCaptionStatus.OK && !Cea708.hasCcData(cea708Data)) {
+                            packet.incrementSkippedPayloadCount();
+                        }
 
                         mpegBitstreamCea708Sort(packet);
 
@@ -336,18 +451,30 @@ public class Mpeg {
                             }
                             System.out.println("count2=" + count2++);
 
-                            newPacketStatus = Cea708.toCaptionFrame(frame, cea708Data);
+                            if (packet.getCaptionChannels() != null) {
+                                newPacketStatus = Cea708.toCaptionChannels(packet.getCaptionChannels(), cea708Data);
+                            } else {
+                                newPacketStatus = Cea708.toCaptionFrame(frame, cea708Data);
+                            }
+                            if (packet.getDtvcc() != null) {
+                                Cea708.toDtvcc(packet.getDtvcc(), cea708Data);
+                            }
                             packet.setStatus(CaptionFrame.statusUpdate(LibCaptionStatus.OK, newPacketStatus));
-                            packet.setFront((packet.getFront() + 1) % MAX_REFERENCE_FRAMES);
+                            packet.setFront((packet.getFront() + 1) % packet.getCea708Data().length);
                             packet.decrementLatent();
                         }
                     }
                 }
-                seiMsgHolder.free();
+                sei.free();
             }
 
-            packet.setSize(packet.getSize() - scpos);
-            System.arraycopy(packet.getNaluData(), scpos, packet.getNaluData(), 0, packet.getSize());
+            packet.consume(scpos);
+        }
+
+        // Once an SEI NAL unit has been consumed, stop buffering the NAL unit that follows it unless it is another SEI
+        if (packet.getStatus() == LibCaptionStatus.OK && packet.getSize() >= headerSize
+                && (packet.getNaluData()[packet.getStart() + 3] & 0x1F) != H264_SEI_PACKET) {
+            packet.skipPendingNalu();
         }
 
         return size;
@@ -355,49 +482,62 @@ public class Mpeg {
 
     /**
      * Finds the start code in a byte array that signifies the beginning of a frame or field in video compression.
+     * Only start codes followed by at least one byte (the NAL unit header) within {@code end} are reported.
      *
      * @param data The byte array containing the data to search.
-     * @param size The size of the data array to search through.
-     * @return The position of the start code or 0 if not found.
+     * @param from The first position at which a start code may begin.
+     * @param end The offset just past the last byte of data to search through.
+     * @return The position of the first byte of the start code, or -1 if not found.
      */
-    private static int findStartCode(byte[] data, int size) {
-        int startCode = 0xFFFFFFFF;
-        for (int i = 1; i < size; i++) {
-            startCode = (startCode << 8) | (data[i] & 0xFF);
-            if ((startCode & 0xFFFFFF00) == 0x00000100) {
-                Debug.print("find_start_code !0: " + i + " " + (startCode & 0xFFFFFFFFL));
-                return i - 3;
-            }
+    private static int findStartCode(byte[] data, int from, int end) {
+        int scpos = StartCodeScanner.find(data, from, end - 1);
+        if (scpos >= 0) {
+            Debug.print("find_start_code !0: " + scpos);
+        } else {
+            Debug.print("find_start_code 0 " + end);
         }
-        Debug.print("find_start_code 0 " + size + " " + (startCode & 0xFFFFFFFFL));
-        return 0;
+        return scpos;
     }
 
     /**
-     * Uses a simple bubble sort algorithm to sort CEA708 data in an MPEG bitstream based on timestamps.
-     * This method optimizes the process by exiting early if no swaps are needed, indicating that the list is sorted.
+     * Moves the CEA708 data just emplaced at the back of the latent window of an MPEG bitstream to its place in
+     * presentation order. The rest of the window is always sorted already, since entries are only ever added by
+     * this method and removed from the front, so a binary search finds the place in O(log n). The new entry goes
+     * after any entry with an equal timestamp, keeping arrival order among them.
      *
      * @param packet the MpegBitStream packet containing CEA708 data.
      */
     private static void mpegBitstreamCea708Sort(MpegBitStream packet) {
-        boolean swapped;
         Cea708Data[] cea708Data = packet.getCea708Data();
+        int capacity = cea708Data.length;
+        int front = packet.getFront();
+        int last = packet.getLatent() - 1;
+        if (last <= 0) {
+            return;
+        }
 
-        for (int i = 0; i < packet.getLatent() - 1; ++i) {
-            swapped = false;
-            for (int j = 1; j < packet.getLatent() - i; ++j) {
-                int posA = (packet.getFront() + j - 1) % MAX_REFERENCE_FRAMES;
-                int posB = (packet.getFront() + j) % MAX_REFERENCE_FRAMES;
+        Cea708Data latest = cea708Data[(front + last) % capacity];
+        double timestamp = latest.getTimestamp();
+        if (cea708Data[(front + last - 1) % capacity].getTimestamp() <= timestamp) {
+            return; // Already in presentation order, the common case without B-frames
+        }
 
-                if (cea708Data[posA].getTimestamp() > cea708Data[posB].getTimestamp()) {
-                    ArrayUtil.swap(cea708Data, posA, posB); // Using a utility method to swap elements
-                    swapped = true;
-                }
+        int low = 0;
+        int high = last - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cea708Data[(front + mid) % capacity].getTimestamp() <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
-            if (!swapped) break; // Early exit if no swaps occurred
         }
 
-        packet.setCea708Data(cea708Data);
+        // Shift the later entries back by one slot; the objects are only moved, never copied
+        for (int i = last; i > low; i--) {
+            cea708Data[(front + i) % capacity] = cea708Data[(front + i - 1) % capacity];
+        }
+        cea708Data[(front + low) % capacity] = latest;
     }
 
     /**
@@ -408,6 +548,6 @@ public class Mpeg {
      * @return The CEA708 data object at the specified position.
      */
     private static Cea708Data mpegBitstreamCea708At(MpegBitStream packet, int pos) {
-        return packet.getCea708Data()[(packet.getFront() + pos) % MAX_REFERENCE_FRAMES];
+        return packet.getCEA708At(pos);
     }
 }
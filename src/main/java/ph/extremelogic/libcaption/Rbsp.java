@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption;
+
+/**
+ * The {@code Rbsp} class converts the escaped payload of a NAL unit into its raw byte sequence payload (RBSP)
+ * by removing the emulation prevention bytes: the {@code 0x03} of every {@code 00 00 03} sequence.
+ * <p>
+ * Each method makes a single forward pass, counting the zero bytes preceding the current byte instead of
+ * searching for the next {@code 00 00 03} sequence over and over. Since the output never runs ahead of the
+ * input, the destination may be the source array itself at the same or a lower offset, unescaping in place.
+ * <p>
+ * This class is not instantiable and only provides static utility methods.
+ */
+public final class Rbsp {
+    /** The emulation prevention byte inserted after two zero bytes. */
+    private static final byte EMULATION_PREVENTION_BYTE = 0x03;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Rbsp() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Finds the first emulation prevention byte in the given range of a byte array.
+     * The zero bytes preceding it must lie in the range as well.
+     *
+     * @param data the escaped data
+     * @param offset the offset of the first byte to scan
+     * @param size the number of bytes to scan
+     * @return the position of the emulation prevention byte relative to {@code offset}, or -1 if there is none
+     */
+    public static int indexOfEmulationPreventionByte(byte[] data, int offset, int size) {
+        int zeros = 0;
+        for (int i = 0; i < size; i++) {
+            byte b = data[offset + i];
+            if (b == EMULATION_PREVENTION_BYTE && zeros >= 2) {
+                return i;
+            }
+            zeros = b == 0 ? zeros + 1 : 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every emulation prevention byte of the given range of a byte array.
+     *
+     * @param src the escaped data
+     * @param srcOffset the offset of the first escaped byte
+     * @param srcSize the number of escaped bytes
+     * @param dst the array receiving the unescaped data, which may be {@code src}
+     * @param dstOffset the offset at which to write the unescaped data; not greater than {@code srcOffset}
+     *                  when unescaping in place
+     * @return the number of unescaped bytes written
+     */
+    public static int unescape(byte[] src, int srcOffset, int srcSize, byte[] dst, int dstOffset) {
+        int zeros = 0;
+        int out = dstOffset;
+        for (int i = srcOffset, end = srcOffset + srcSize; i < end; i++) {
+            byte b = src[i];
+            if (b == EMULATION_PREVENTION_BYTE && zeros >= 2) {
+                zeros = 0;
+                continue;
+            }
+            dst[out++] = b;
+            zeros = b == 0 ? zeros + 1 : 0;
+        }
+        return out - dstOffset;
+    }
+
+    /**
+     * Removes every emulation prevention byte of the given range of a byte array in place,
+     * moving the unescaped data to the beginning of the range.
+     *
+     * @param data the escaped data
+     * @param offset the offset of the first escaped byte
+     * @param size the number of escaped bytes
+     * @return the number of unescaped bytes now starting at {@code offset}
+     */
+    public static int unescapeInPlace(byte[] data, int offset, int size) {
+        return unescape(data, offset, size, data, offset);
+    }
+
+    /**
+     * Unescapes a payload of known unescaped size, such as an SEI message payload, that is followed by more
+     * escaped data. As in libcaption, more escaped bytes than still needed must be left whenever a payload
+     * byte is about to be read, so the payload cannot end the escaped data.
+     *
+     * @param src the escaped data
+     * @param srcOffset the offset of the first escaped payload byte
+     * @param srcSize the number of escaped bytes available from {@code srcOffset}
+     * @param dst the array receiving the unescaped payload, which may be {@code src}
+     * @param dstOffset the offset at which to write the unescaped payload
+     * @param dstSize the unescaped size of the payload
+     * @return the number of escaped bytes consumed, or 0 if the escaped data is too short
+     */
+    public static int unescapePayload(byte[] src, int srcOffset, int srcSize, byte[] dst, int dstOffset, int dstSize) {
+        if (dstSize >= srcSize) {
+            return 0;
+        }
+
+        int zeros = 0;
+        int in = srcOffset;
+        int end = srcOffset + srcSize;
+        for (int out = 0; out < dstSize; in++) {
+            byte b = src[in];
+            if (b == EMULATION_PREVENTION_BYTE && zeros >= 2) {
+                zeros = 0;
+                if (dstSize - out >= end - in - 1) {
+                    return 0;
+                }
+                continue;
+            }
+            dst[dstOffset + out++] = b;
+            zeros = b == 0 ? zeros + 1 : 0;
+        }
+        return in - srcOffset;
+    }
+}
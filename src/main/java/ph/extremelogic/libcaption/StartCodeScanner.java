@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The {@code StartCodeScanner} class locates Annex B start codes ({@code 00 00 01}) in H.264/H.265 elementary
+ * stream data.
+ * <p>
+ * Eight bytes are tested per step (SWAR): a word read through a {@link VarHandle} view is checked for zero
+ * bytes, and words without any are skipped as a whole since a start code always begins with a zero byte.
+ * Only the zero bytes of the remaining words are verified one by one, so the positions reported are the same
+ * as those of the byte-by-byte {@link #findScalar(byte[], int, int) scalar scanner}, which is also used for the
+ * last bytes of the data.
+ * <p>
+ * This class is not instantiable and only provides static utility methods.
+ */
+public final class StartCodeScanner {
+    private static final VarHandle ARRAY_LONG =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_LONG =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private StartCodeScanner() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Finds the first start code lying entirely within the given range of a byte array.
+     *
+     * @param data the byte array to search
+     * @param from the first position at which a start code may begin
+     * @param end the offset just past the last byte that may belong to a start code
+     * @return the position of the first byte of the start code, or -1 if not found
+     */
+    public static int find(byte[] data, int from, int end) {
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long zeros = zeroBytes((long) ARRAY_LONG.get(data, i));
+            while (zeros != 0) {
+                int p = i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+                if (p + 2 < end && data[p + 1] == 0 && data[p + 2] == 1 && data[p] == 0) {
+                    return p;
+                }
+                zeros &= zeros - 1;
+            }
+        }
+        return findScalar(data, i, end);
+    }
+
+    /**
+     * Finds the first start code lying entirely within the given range of a buffer, using absolute reads only.
+     * The buffer's position and limit are left untouched.
+     *
+     * @param data the buffer to search
+     * @param from the absolute position at which a start code may begin
+     * @param end the absolute offset just past the last byte that may belong to a start code
+     * @return the position of the first byte of the start code, or -1 if not found
+     */
+    public static int find(ByteBuffer data, int from, int end) {
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long zeros = zeroBytes((long) BUFFER_LONG.get(data, i));
+            while (zeros != 0) {
+                int p = i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+                if (p + 2 < end && data.get(p + 1) == 0 && data.get(p + 2) == 1 && data.get(p) == 0) {
+                    return p;
+                }
+                zeros &= zeros - 1;
+            }
+        }
+        for (; i + 2 < end; i++) {
+            if (data.get(i + 2) == 1 && data.get(i) == 0 && data.get(i + 1) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first start code lying entirely within the given range of a byte array, one byte at a time.
+     *
+     * @param data the byte array to search
+     * @param from the first position at which a start code may begin
+     * @param end the offset just past the last byte that may belong to a start code
+     * @return the position of the first byte of the start code, or -1 if not found
+     */
+    public static int findScalar(byte[] data, int from, int end) {
+        for (int i = from; i + 2 < end; i++) {
+            if (data[i + 2] == 1 && data[i] == 0 && data[i + 1] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Flags the zero bytes of a word. The high bit of every zero byte is set; the high bit of a non-zero byte
+     * may also be set when a zero byte precedes it, so every flagged position has to be verified.
+     *
+     * @param word eight bytes in little-endian order
+     * @return a mask with the high bit of candidate zero bytes set
+     */
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGHS;
+    }
+}
@@ -26,9 +26,13 @@ package ph.extremelogic.libcaption;
 import lombok.Getter;
 import lombok.Setter;
 import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+import ph.extremelogic.libcaption.model.Program;
 import ph.extremelogic.texttrack.utils.Debug;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static ph.extremelogic.libcaption.Mpeg.STREAM_TYPE_H265;
 
@@ -36,6 +40,10 @@ import static ph.extremelogic.libcaption.Mpeg.STREAM_TYPE_H265;
  * The {@code TransportSystem} class provides functionality to parse MPEG transport stream packets
  * and extract data such as Program Map Table (PMT), elementary streams, and presentation timestamps (PTS/DTS).
  * It includes methods to parse packets, calculate timestamps, and extract stream data for further processing.
+ * <p>
+ * Every program announced in the Program Association Table is tracked, so the video elementary streams of
+ * all services of a multi-program transport stream (MPTS) are demultiplexed in a single pass. The program
+ * that the last extracted payload belongs to is available through {@link #getProgram()}.
  */
 public class TransportSystem {
     /** MPEG timebase frequency used for PTS/DTS calculations (90 kHz). */
@@ -49,15 +57,24 @@ public class TransportSystem {
     private static final int ADAPTION_FIELD_PRESENT_MASK = 0x20;
     private static final int PAYLOAD_PRESENT_MASK = 0x10;
 
-    /** Program Map Table PID. */
-    @Getter @Setter
-    private short pmtpId;
+    private static final int PID_COUNT = 0x2000;
+    private static final byte PID_IGNORED = 0;
+    private static final byte PID_PAT = 1;
+    private static final byte PID_PMT = 2;
+    private static final byte PID_VIDEO = 3;
+
+    /** The role of every PID, indexed by PID, used to prefilter and dispatch packets. */
+    private final byte[] pidType = new byte[PID_COUNT];
+
+    /** The program owning each video PID, indexed by PID. */
+    private final Program[] pidProgram = new Program[PID_COUNT];
 
-    /** Elementary stream PID for closed captions. */
-    private short ccpId;
+    /** The programs announced in the Program Association Table, in discovery order. */
+    private final List<Program> programs = new ArrayList<>();
 
-    /** The stream type (e.g., H.264, H.265). */
-    private short streamType;
+    /** The program the last extracted payload belongs to. */
+    @Getter
+    private Program program;
 
     /** The Presentation Timestamp (PTS) in MPEG timestamp format. */
     @Getter @Setter
@@ -67,13 +84,20 @@ public class TransportSystem {
     @Getter @Setter
     private long dts;
 
-    /** The size of the extracted data payload. */
+    /**
+     * The buffer holding the payload extracted from the last parsed transport stream packet.
+     * The payload is a view over the packet buffer and is only valid until that buffer is reused.
+     */
+    @Getter
+    private ByteBuffer payload;
+
+    /** The absolute offset of the extracted payload within {@link #payload}. */
     @Getter @Setter
-    private int size;
+    private int offset;
 
-    /** The extracted data payload from the transport stream packet. */
+    /** The size of the extracted data payload. */
     @Getter @Setter
-    private byte[] data;
+    private int size;
 
     public TransportSystem() {
         init();
@@ -83,10 +107,37 @@ public class TransportSystem {
      * Initializes the transport system by resetting all fields to their default values.
      */
     private void init() {
-        pmtpId = ccpId = streamType = 0;
+        pidType[0] = PID_PAT;
+        program = null;
         pts = dts = 0;
-        size = 0;
-        data = null;
+        offset = size = 0;
+        payload = null;
+    }
+
+    /**
+     * Returns the programs announced in the Program Association Table, in discovery order.
+     * The {@link Program#getIndex() index} of each program is its position in this list.
+     *
+     * @return an unmodifiable view of the known programs
+     */
+    public List<Program> getPrograms() {
+        return Collections.unmodifiableList(programs);
+    }
+
+    /**
+     * Returns a copy of the payload extracted from the last parsed transport stream packet.
+     * This allocates a new array on every call; use {@link #getPayload()}, {@link #getOffset()}
+     * and {@link #getSize()} to read the payload in place.
+     *
+     * @return a copy of the extracted payload, or {@code null} if the last packet carried none
+     */
+    public byte[] getData() {
+        if (payload == null) {
+            return null;
+        }
+        byte[] data = new byte[size];
+        payload.get(offset, data);
+        return data;
     }
 
     /**
@@ -115,34 +166,89 @@ public class TransportSystem {
         if (packetData.limit() != TS_PACKET_SIZE) {
             throw new IllegalArgumentException("Packet size must be " + TS_PACKET_SIZE + " bytes");
         }
+        return parsePacketAt(packetData, 0);
+    }
+
+    /**
+     * Parses every complete transport stream packet between the buffer's position and limit in a single pass,
+     * reporting the status of each parsed packet to the given listener as soon as it has been parsed.
+     * <p>
+     * Packets are prefiltered on the 13-bit PID read straight from header bytes 1 and 2: only the
+     * Program Association Table and the Program Map Table and video PIDs of the known programs are parsed
+     * and reported. All other packets (audio, PCR-only, null packets, ...) are skipped without decoding,
+     * as parsing them would always yield {@link LibCaptionStatus#OK}.
+     * <p>
+     * The listener is invoked before the next packet is parsed, so the payload exposed through
+     * {@link #getPayload()}, {@link #getOffset()} and {@link #getSize()} is only valid for the duration of the callback.
+     * On return the buffer's position is advanced past the last complete packet; any trailing partial
+     * packet is left unconsumed so that the caller can compact the buffer and refill it.
+     *
+     * @param packets  the buffer holding contiguous transport stream packets
+     * @param listener the listener notified with the status of every parsed packet
+     * @return the number of packets consumed, including the ones skipped by the PID prefilter
+     */
+    public int parsePackets(ByteBuffer packets, PacketListener listener) {
+        int offset = packets.position();
+        int last = packets.limit() - TS_PACKET_SIZE;
+        int count = 0;
+
+        for (; offset <= last; offset += TS_PACKET_SIZE) {
+            count++;
+            int pid = ((packets.get(offset + 1) & 0x1F) << 8) | (packets.get(offset + 2) & 0xFF);
+            if (pidType[pid] == PID_IGNORED) {
+                continue;
+            }
+            listener.onPacket(parsePacketAt(packets, offset));
+        }
 
-        boolean pusi = (packetData.get(1) & 0x40) != 0;
-        short pid = (short) (((packetData.get(1) & 0x1F) << 8) | (packetData.get(2) & 0xFF));
-        boolean adaptionPresent = (packetData.get(3) & ADAPTION_FIELD_PRESENT_MASK) != 0;
-        boolean payloadPresent = (packetData.get(3) & PAYLOAD_PRESENT_MASK) != 0;
+        packets.position(offset);
+        return count;
+    }
+
+    /**
+     * Parses the transport stream packet that starts at the given absolute offset of the buffer.
+     * The buffer's position and limit are left untouched.
+     *
+     * @param packetData the buffer containing the transport stream packet
+     * @param offset     the absolute offset of the packet within the buffer
+     * @return the status of the parsing operation, represented by the ordinal value of {@code LibCaptionStatus}
+     */
+    private int parsePacketAt(ByteBuffer packetData, int offset) {
+        boolean pusi = (packetData.get(offset + 1) & 0x40) != 0;
+        int pid = ((packetData.get(offset + 1) & 0x1F) << 8) | (packetData.get(offset + 2) & 0xFF);
+        boolean adaptionPresent = (packetData.get(offset + 3) & ADAPTION_FIELD_PRESENT_MASK) != 0;
+        boolean payloadPresent = (packetData.get(offset + 3) & PAYLOAD_PRESENT_MASK) != 0;
 
         Debug.print("DEBUG pusi: " + (pusi ? 1 : 0));
         Debug.print("DEBUG pid: " + pid);
         Debug.print("DEBUG adaption_present: " + (adaptionPresent ? 1 : 0));
         Debug.print("DEBUG payload_present: " + (payloadPresent ? 1 : 0));
 
-        packetData.position(4);
+        int position = offset + 4;
+        int end = offset + TS_PACKET_SIZE;
 
-        this.data = null;
+        this.payload = null;
+        this.offset = 0;
         this.size = 0;
 
         if (adaptionPresent) {
-            int adaptionLength = packetData.get() & 0xFF;
-            packetData.position(packetData.position() + adaptionLength);
-            Debug.print("DEBUG adaption_present: " + packetData.position());
+            int adaptionLength = packetData.get(position) & 0xFF;
+            position += 1 + adaptionLength;
+            Debug.print("DEBUG adaption_present: " + (position - offset));
         }
 
-        if (pid == 0) {
-            return handleProgramAssociationTable(packetData, payloadPresent);
-        } else if (pid == this.pmtpId) {
-            return handleProgramMapTable(packetData, payloadPresent);
-        } else if (payloadPresent && pid == this.ccpId) {
-            return handleClosedCaptionPayload(packetData, pusi);
+        switch (pidType[pid]) {
+            case PID_PAT:
+                return handleProgramAssociationTable(packetData, position, end, payloadPresent);
+            case PID_PMT:
+                return handleProgramMapTable(packetData, position, end, payloadPresent);
+            case PID_VIDEO:
+                if (payloadPresent) {
+                    return handleClosedCaptionPayload(packetData, position, end, pusi, pidProgram[pid]);
+                }
+                break;
+            default:
+                break;
         }
 
         Debug.print("DEBUG LIBCAPTION_OK");
@@ -150,87 +256,205 @@ public class TransportSystem {
     }
 
     /**
-     * Handles the Program Association Table (PAT) to set the Program Map Table (PMT) PID.
+     * Handles the Program Association Table (PAT) to register the Program Map Table (PMT) PID of every program.
      *
      * @param packetData the byte buffer containing the transport stream packet
+     * @param position the absolute offset of the packet payload
+     * @param end the absolute offset just past the end of the packet
      * @param payloadPresent flag indicating if the payload is present in the packet
      * @return the status of the handling operation, represented by the ordinal value of {@code LibCaptionStatus}
      */
-    private int handleProgramAssociationTable(ByteBuffer packetData, boolean payloadPresent) {
+    private int handleProgramAssociationTable(ByteBuffer packetData, int position, int end, boolean payloadPresent) {
         if (payloadPresent) {
-            packetData.position(packetData.position() + (packetData.get() & 0xFF) + 1);
+            position += (packetData.get(position) & 0xFF) + 1;
+        }
+
+        int sectionLength = ((packetData.get(position + 1) & 0x0F) << 8) | (packetData.get(position + 2) & 0xFF);
+        // Program loop runs from the end of the fixed header up to the CRC
+        int loopEnd = Math.min(position + 3 + sectionLength - 4, end);
+
+        for (position += 8; position + 4 <= loopEnd; position += 4) {
+            int programNumber = ((packetData.get(position) & 0xFF) << 8) | (packetData.get(position + 1) & 0xFF);
+            int pmtPid = ((packetData.get(position + 2) & 0x1F) << 8) | (packetData.get(position + 3) & 0xFF);
+
+            // Program number 0 points to the network information table
+            if (programNumber != 0) {
+                registerProgram(programNumber, pmtPid);
+            }
         }
-        this.pmtpId = (short) (((packetData.get(packetData.position() + 10) & 0x1F) << 8) | (packetData.get(packetData.position() + 11) & 0xFF));
         return LibCaptionStatus.OK.ordinal();
     }
 
     /**
-     * Handles the Program Map Table (PMT) to identify and set the closed caption PID.
+     * Registers a program announced in the Program Association Table, or updates its PMT PID.
+     *
+     * @param programNumber the program number
+     * @param pmtPid the Program Map Table PID of the program
+     */
+    private void registerProgram(int programNumber, int pmtPid) {
+        Program known = findProgram(programNumber);
+        if (known == null) {
+            known = new Program(programs.size(), programNumber, pmtPid);
+            programs.add(known);
+        } else if (known.getPmtPid() != pmtPid) {
+            int previousPid = known.getPmtPid();
+            known.setPmtPid(pmtPid);
+            releasePid(previousPid, PID_PMT);
+        }
+
+        if (pidType[pmtPid] == PID_IGNORED) {
+            pidType[pmtPid] = PID_PMT;
+        }
+    }
+
+    /**
+     * Looks up a known program by its program number.
+     *
+     * @param programNumber the program number
+     * @return the program, or {@code null} if it has not been announced in the Program Association Table
+     */
+    private Program findProgram(int programNumber) {
+        for (Program candidate : programs) {
+            if (candidate.getProgramNumber() == programNumber) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops tracking a PID of the given role, unless another program still uses it in that role.
+     *
+     * @param pid the PID to release
+     * @param type the role the PID was registered with
+     */
+    private void releasePid(int pid, byte type) {
+        for (Program candidate : programs) {
+            if ((type == PID_PMT && candidate.getPmtPid() == pid) || (type == PID_VIDEO && candidate.getVideoPid() == pid)) {
+                return;
+            }
+        }
+        if (pidType[pid] == type) {
+            pidType[pid] = PID_IGNORED;
+            pidProgram[pid] = null;
+        }
+    }
+
+    /**
+     * Handles the Program Map Table (PMT) to identify and set the closed caption PID of the program it describes.
      *
      * @param packetData the byte buffer containing the transport stream packet
+     * @param position the absolute offset of the packet payload
+     * @param end the absolute offset just past the end of the packet
      * @param payloadPresent flag indicating if the payload is present in the packet
      * @return the status of the handling operation, represented by the ordinal value of {@code LibCaptionStatus}
      */
-    private int handleProgramMapTable(ByteBuffer packetData, boolean payloadPresent) {
+    private int handleProgramMapTable(ByteBuffer packetData, int position, int end, boolean payloadPresent) {
         if (payloadPresent) {
-            packetData.position(packetData.position() + (packetData.get() & 0xFF) + 1);
+            position += (packetData.get(position) & 0xFF) + 1;
         }
 
-        int sectionLength = ((packetData.get(packetData.position() + 1) & 0x0F) << 8) | (packetData.get(packetData.position() + 2) & 0xFF);
-        boolean current = (packetData.get(packetData.position() + 5) & 0x01) != 0;
-        int programInfoLength = ((packetData.get(packetData.position() + 10) & 0x0F) << 8) | (packetData.get(packetData.position() + 11) & 0xFF);
+        int sectionLength = ((packetData.get(position + 1) & 0x0F) << 8) | (packetData.get(position + 2) & 0xFF);
+        int programNumber = ((packetData.get(position + 3) & 0xFF) << 8) | (packetData.get(position + 4) & 0xFF);
+        boolean current = (packetData.get(position + 5) & 0x01) != 0;
+        int programInfoLength = ((packetData.get(position + 10) & 0x0F) << 8) | (packetData.get(position + 11) & 0xFF);
         int descriptorLoopLength = sectionLength - (9 + programInfoLength + 4);
 
-        packetData.position(packetData.position() + 12 + programInfoLength);
+        Program mapped = findProgram(programNumber);
+        if (mapped == null) {
+            return LibCaptionStatus.OK.ordinal();
+        }
+
+        position += 12 + programInfoLength;
 
         if (current) {
-            while (descriptorLoopLength >= 5) {
-                short streamType = (short) (packetData.get() & 0xFF);
-                short elementaryPid = (short) (((packetData.get() & 0x1F) << 8) | (packetData.get() & 0xFF));
-                int esinfoLength = ((packetData.get() & 0x0F) << 8) | (packetData.get() & 0xFF);
+            while (descriptorLoopLength >= 5 && position + 5 <= end) {
+                short streamType = (short) (packetData.get(position) & 0xFF);
+                int elementaryPid = ((packetData.get(position + 1) & 0x1F) << 8) | (packetData.get(position + 2) & 0xFF);
+                int esinfoLength = ((packetData.get(position + 3) & 0x0F) << 8) | (packetData.get(position + 4) & 0xFF);
 
                 if (streamType == ph.extremelogic.libcaption.Mpeg.STREAM_TYPE_H262 ||
                         streamType == ph.extremelogic.libcaption.Mpeg.STREAM_TYPE_H264 ||
                         streamType == STREAM_TYPE_H265) {
-                    this.ccpId = elementaryPid;
-                    this.streamType = streamType;
+                    registerVideoPid(mapped, elementaryPid, streamType);
                 }
 
-                packetData.position(packetData.position() + 1 + esinfoLength);
+                position += 5 + esinfoLength;
                 descriptorLoopLength -= 5 + esinfoLength;
             }
         }
         return LibCaptionStatus.OK.ordinal();
     }
 
+    /**
+     * Assigns the video elementary stream that carries the closed captions of a program.
+     *
+     * @param owner the program described by the Program Map Table
+     * @param videoPid the video elementary stream PID
+     * @param streamType the stream type of the video elementary stream
+     */
+    private void registerVideoPid(Program owner, int videoPid, int streamType) {
+        int previousPid = owner.getVideoPid();
+        owner.setVideoPid(videoPid);
+        owner.setStreamType(streamType);
+        if (previousPid != 0 && previousPid != videoPid) {
+            releasePid(previousPid, PID_VIDEO);
+        }
+
+        if (pidType[videoPid] == PID_IGNORED || pidType[videoPid] == PID_VIDEO) {
+            pidType[videoPid] = PID_VIDEO;
+            pidProgram[videoPid] = owner;
+        }
+    }
+
     /**
      * Handles the closed caption payload for packets identified with closed caption PID.
      *
      * @param packetData the byte buffer containing the transport stream packet
+     * @param position the absolute offset of the packet payload
+     * @param end the absolute offset just past the end of the packet
      * @param pusi flag indicating if the payload unit start indicator (PUSI) is present
+     * @param owner the program the video elementary stream belongs to
      * @return the status of the payload handling operation, represented by the ordinal value of {@code LibCaptionStatus}
      */
-    private int handleClosedCaptionPayload(ByteBuffer packetData, boolean pusi) {
+    private int handleClosedCaptionPayload(ByteBuffer packetData, int position, int end, boolean pusi, Program owner) {
         if (pusi) {
-            boolean hasPts = (packetData.get(packetData.position() + 7) & 0x80) != 0;
-            boolean hasDts = (packetData.get(packetData.position() + 7) & 0x40) != 0;
-            int headerLength = packetData.get(packetData.position() + 8) & 0xFF;
+            boolean hasPts = (packetData.get(position + 7) & 0x80) != 0;
+            boolean hasDts = (packetData.get(position + 7) & 0x40) != 0;
+            int headerLength = packetData.get(position + 8) & 0xFF;
 
             if (hasPts) {
-                this.pts = parsePts(packetData, packetData.position() + 9);
-                this.dts = hasDts ? parsePts(packetData, packetData.position() + 14) : this.pts;
+                owner.setPts(parsePts(packetData, position + 9));
+                owner.setDts(hasDts ? parsePts(packetData, position + 14) : owner.getPts());
             }
 
-            packetData.position(packetData.position() + 9 + headerLength);
+            position += 9 + headerLength;
         }
 
-        this.size = packetData.remaining();
-        this.data = new byte[this.size];
-        packetData.get(this.data);
+        this.program = owner;
+        this.pts = owner.getPts();
+        this.dts = owner.getDts();
+
+        this.payload = packetData;
+        this.offset = position;
+        this.size = end - position;
         Debug.print("DEBUG LIBCAPTION_READY");
         return LibCaptionStatus.READY.ordinal();
     }
 
+    /**
+     * Receives the status of each packet parsed by {@link #parsePackets(ByteBuffer, PacketListener)}.
+     */
+    @FunctionalInterface
+    public interface PacketListener {
+        /**
+         * Called once for every parsed packet, before the next packet is parsed.
+         *
+         * @param status the status of the parsed packet, represented by the ordinal value of {@code LibCaptionStatus}
+         */
+        void onPacket(int status);
+    }
+
     /**
      * Returns the Decode Timestamp (DTS) in seconds.
      *
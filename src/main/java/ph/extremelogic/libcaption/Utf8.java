@@ -23,10 +23,13 @@
  */
 package ph.extremelogic.libcaption;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * The {@code Utf8} class provides utility methods for working with UTF-8 encoded characters.
  * It includes methods for determining the length of a UTF-8 character, checking for whitespace characters,
- * and copying UTF-8 characters between byte arrays.
+ * copying UTF-8 characters between byte arrays and encoding characters into byte buffers.
  *
  * This class is not instantiable and only provides static utility methods.
  */
@@ -100,4 +103,99 @@ public class Utf8 {
 
         return bytes;
     }
+
+    /**
+     * Determines the number of bytes needed to encode a character in UTF-8.
+     *
+     * @param codePoint the Unicode code point of the character
+     * @return the length of the encoded character, from 1 to 4 bytes
+     */
+    public static int utf8EncodedLength(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        } else if (codePoint < 0x800) {
+            return 2;
+        } else if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    /**
+     * Determines the number of bytes needed to encode a character sequence in UTF-8.
+     * Surrogate pairs count as a single 4 byte character.
+     *
+     * @param text the characters to measure
+     * @return the length of the encoded text in bytes
+     */
+    public static int utf8EncodedLength(CharSequence text) {
+        int length = 0;
+        int codePoint = 0;
+        for (int i = 0; i < text.length(); i += Character.charCount(codePoint)) {
+            codePoint = Character.codePointAt(text, i);
+            length += utf8EncodedLength(codePoint);
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a character in UTF-8 at the position of a byte buffer, advancing the position.
+     * Nothing is written if the buffer cannot hold the whole character.
+     *
+     * @param codePoint the Unicode code point of the character
+     * @param dst       the buffer receiving the encoded bytes
+     * @return the number of bytes written
+     * @throws BufferOverflowException if fewer bytes than needed remain in the buffer
+     */
+    public static int utf8Encode(int codePoint, ByteBuffer dst) {
+        int length = utf8EncodedLength(codePoint);
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        switch (length) {
+            case 1:
+                dst.put((byte) codePoint);
+                break;
+            case 2:
+                dst.put((byte) (0xC0 | (codePoint >> 6)));
+                dst.put((byte) (0x80 | (codePoint & 0x3F)));
+                break;
+            case 3:
+                dst.put((byte) (0xE0 | (codePoint >> 12)));
+                dst.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                dst.put((byte) (0x80 | (codePoint & 0x3F)));
+                break;
+            default:
+                dst.put((byte) (0xF0 | (codePoint >> 18)));
+                dst.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                dst.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                dst.put((byte) (0x80 | (codePoint & 0x3F)));
+                break;
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a character sequence in UTF-8 at the position of a byte buffer, advancing the position.
+     * Nothing is written if the buffer cannot hold the whole sequence.
+     *
+     * @param text the characters to encode
+     * @param dst  the buffer receiving the encoded bytes
+     * @return the number of bytes written
+     * @throws BufferOverflowException if fewer bytes than needed remain in the buffer
+     */
+    public static int utf8Encode(CharSequence text, ByteBuffer dst) {
+        int length = utf8EncodedLength(text);
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        int codePoint = 0;
+        for (int i = 0; i < text.length(); i += Character.charCount(codePoint)) {
+            codePoint = Character.codePointAt(text, i);
+            utf8Encode(codePoint, dst);
+        }
+        return length;
+    }
 }
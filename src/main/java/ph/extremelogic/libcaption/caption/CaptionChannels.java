@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption.caption;
+
+import lombok.Getter;
+import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+
+import static ph.extremelogic.libcaption.eia608.Eia608Decoder.*;
+
+/**
+ * The {@code CaptionChannels} class decodes the four CEA-608 caption channels CC1 to CC4 at once,
+ * with one {@link CaptionFrame} per channel. CC1 and CC2 are carried by field 1 and CC3 and CC4 by field 2.
+ * <p>
+ * Control codes, preamble address codes, mid-row codes and special characters carry the channel bit of the
+ * channel they belong to, and select that channel as the data channel of their field. Basic characters carry
+ * no channel bit and go to the data channel of their field. Extended data services (XDS) on field 2 deselect
+ * the data channel until the next caption code, so their payload is not taken for caption text.
+ */
+public class CaptionChannels {
+    /** Number of CEA-608 caption channels. */
+    public static final int CHANNEL_COUNT = 4;
+
+    /** Data channel of a field while no caption code has selected one, or while XDS data is being sent. */
+    private static final int NO_CHANNEL = -1;
+
+    /** The caption frames of CC1 to CC4, indexed by channel. */
+    private final CaptionFrame[] frames = new CaptionFrame[CHANNEL_COUNT];
+
+    /** The data channel currently selected on each field, or {@link #NO_CHANNEL}. */
+    private final int[] dataChannels = {NO_CHANNEL, NO_CHANNEL};
+
+    /**
+     * Bit mask of the channels whose frame became ready to display since the last {@link #clearReady()},
+     * bit {@code n} standing for channel {@code n} (CC{@code n+1}).
+     */
+    @Getter
+    private int readyChannels;
+
+    /**
+     * Constructs a new {@code CaptionChannels} with an empty caption frame per channel.
+     */
+    public CaptionChannels() {
+        for (int i = 0; i < CHANNEL_COUNT; i++) {
+            frames[i] = new CaptionFrame();
+        }
+    }
+
+    /**
+     * Returns the caption frame of a channel.
+     *
+     * @param channel the channel, from 0 (CC1) to 3 (CC4)
+     * @return the caption frame of the channel
+     */
+    public CaptionFrame getFrame(int channel) {
+        return frames[channel];
+    }
+
+    /**
+     * Checks whether the frame of a channel became ready to display since the last {@link #clearReady()}.
+     *
+     * @param channel the channel, from 0 (CC1) to 3 (CC4)
+     * @return {@code true} if the frame of the channel is ready
+     */
+    public boolean isReady(int channel) {
+        return (readyChannels & (1 << channel)) != 0;
+    }
+
+    /**
+     * Forgets which channels became ready, once their frames have been displayed.
+     */
+    public void clearReady() {
+        readyChannels = 0;
+    }
+
+    /**
+     * Routes a CEA-608 byte pair to the caption frame of its channel and decodes it there.
+     * Byte pairs failing the parity check and byte pairs for no channel are dropped.
+     *
+     * @param field     the field the byte pair was carried in, 0 for field 1 or 1 for field 2
+     * @param ccData    the byte pair, parity bits included
+     * @param timestamp the presentation time of the byte pair, in seconds
+     * @return {@code READY} if the frame of the channel became ready to display, {@code OK} otherwise
+     */
+    public LibCaptionStatus decode(int field, int ccData, double timestamp) {
+        switch (eia608Classify(ccData)) {
+            case CLASS_PARITY_ERROR, CLASS_PADDING:
+                return LibCaptionStatus.OK;
+            case CLASS_XDS:
+                dataChannels[field] = NO_CHANNEL;
+                return LibCaptionStatus.OK;
+            case CLASS_BASIC_TEXT:
+                // Basic characters carry no channel bit and stay on the channel selected last
+                break;
+            default:
+                dataChannels[field] = 2 * field + (eia608TestSecondChannelBit(ccData) ? 1 : 0);
+                break;
+        }
+
+        int channel = dataChannels[field];
+        if (channel == NO_CHANNEL) {
+            return LibCaptionStatus.OK;
+        }
+
+        LibCaptionStatus status = frames[channel].decode(ccData, timestamp);
+        if (status == LibCaptionStatus.READY) {
+            readyChannels |= 1 << channel;
+        }
+        return status == LibCaptionStatus.READY ? status : LibCaptionStatus.OK;
+    }
+}
@@ -23,11 +23,19 @@
  */
 package ph.extremelogic.libcaption.caption;
 
+import lombok.Getter;
 import ph.extremelogic.libcaption.eia608.Eia608Control;
 import ph.extremelogic.libcaption.eia608.Eia608Style;
 import ph.extremelogic.libcaption.constant.LibCaptionStatus;
 import ph.extremelogic.texttrack.utils.Debug;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import static ph.extremelogic.libcaption.Utf8.utf8Encode;
+import static ph.extremelogic.libcaption.Utf8.utf8EncodedLength;
 import static ph.extremelogic.libcaption.constant.Eia608CharConstants.EIA608_CHAR_NULL;
 import static ph.extremelogic.libcaption.eia608.Eia608Control.TAB_OFFSET_0;
 import static ph.extremelogic.libcaption.constant.LibCaptionStatus.ERROR;
@@ -78,9 +86,12 @@ public class CaptionFrame {
     // Represents the current state of the caption frame
     private final CaptionFrameState state = new CaptionFrameState();
 
-    // Front and back buffers for managing caption frames
-    private final CaptionFrameBuffer front = new CaptionFrameBuffer();
-    private final CaptionFrameBuffer back = new CaptionFrameBuffer();
+    // Front and back buffers for managing caption frames, swapped by end of caption
+    private CaptionFrameBuffer front = new CaptionFrameBuffer();
+    private CaptionFrameBuffer back = new CaptionFrameBuffer();
+
+    // Text of each displayed row as of the last call to changedRows()
+    private final String[] renderedRows = new String[SCREEN_ROWS];
 
     // The current buffer being written to
     private CaptionFrameBuffer write = null;
@@ -88,6 +99,9 @@ public class CaptionFrame {
     private double timestamp = -1;
     // Status of the caption frame, indicating errors or readiness
     private LibCaptionStatus status = LibCaptionStatus.OK;
+    // Number of control codes decoded that match no known control command
+    @Getter
+    private long unknownControlCount = 0;
 
     /**
      * Constructs a new {@code CaptionFrame} object and initializes the buffers and state.
@@ -154,7 +168,7 @@ public class CaptionFrame {
     }
 
     /**
-     * Returns the {@code CaptionFrameCell} at the specified row and column in the given buffer.
+     * Returns a snapshot of the cell at the specified row and column in the given buffer.
      *
      * @param buffer the buffer to access
      * @param row    the row index
@@ -165,7 +179,12 @@ public class CaptionFrame {
         if (buffer == null || row < 0 || row >= SCREEN_ROWS || col < 0 || col >= SCREEN_COLS) {
             return null;
         }
-        return buffer.getCell()[row][col];
+        CaptionFrameCell cell = new CaptionFrameCell();
+        int codePoint = buffer.getCodePoint(row, col);
+        cell.setData(codePoint == 0 ? EIA608_CHAR_NULL : new String(Character.toChars(codePoint)));
+        cell.setStyle(buffer.getStyle(row, col));
+        cell.setUnderline(buffer.isUnderline(row, col));
+        return cell;
     }
 
     /**
@@ -179,23 +198,39 @@ public class CaptionFrame {
      * @return 1 if the character was successfully written, 0 otherwise
      */
     public int writeChar(int row, int col, int style, boolean underline, String c) {
-        Debug.print("caption_frame_write_char");
-        Debug.print(" - row: " + row);
-        Debug.print(" - col: " + col);
-        Debug.print(" - c: " + c);
-        if (this.write == null || c == null || c.isEmpty()) {
+        if (c == null || c.isEmpty()) {
             return 0;
         }
+        return writeChar(row, col, style, underline, c.codePointAt(0));
+    }
 
-        CaptionFrameCell cell = frameBufferCell(this.write, row, col);
-        if (cell != null) {
-            cell.setUnderline(underline);
-            cell.setStyle(style);
-            cell.setData(c);
-            return 1;
+    /**
+     * Writes a character given by its code point into the caption frame at the specified row and column.
+     *
+     * @param row       the row index
+     * @param col       the column index
+     * @param style     the style of the caption (e.g., color)
+     * @param underline whether the character should be underlined
+     * @param codePoint the code point of the character to write, {@code 0} writes nothing
+     * @return 1 if the character was successfully written, 0 otherwise
+     */
+    public int writeChar(int row, int col, int style, boolean underline, int codePoint) {
+        if (Debug.enabled()) {
+            Debug.print("caption_frame_write_char");
+            Debug.print(" - row: " + row);
+            Debug.print(" - col: " + col);
+            Debug.print(" - c: " + codePoint);
+        }
+        if (this.write == null || codePoint == 0) {
+            return 0;
+        }
+
+        if (row < 0 || row >= SCREEN_ROWS || col < 0 || col >= SCREEN_COLS) {
+            return 0;
         }
 
-        return 0;
+        this.write.set(row, col, codePoint, style, underline);
+        return 1;
     }
 
     /**
@@ -232,30 +267,29 @@ public class CaptionFrame {
             return LibCaptionStatus.OK;
         }
 
-        for (; r < SCREEN_ROWS; ++r) {
-            CaptionFrameCell[] dst = this.write.getCell()[r - 1];
-            CaptionFrameCell[] src = this.write.getCell()[r];
-            System.arraycopy(src, 0, dst, 0, SCREEN_COLS);
-            Debug.print("caption_frame_carriage_return C");
-        }
+        // Move rows r to the last one up by one row, discarding row r - 1 and clearing the last row
+        this.write.scrollUp(r - 1);
+        Debug.print("caption_frame_carriage_return C");
 
         this.state.setCol(0);
-        // Clear the last row
-        for (int col = 0; col < SCREEN_COLS; col++) {
-            this.write.getCell()[SCREEN_ROWS - 1][col] = new CaptionFrameCell();
-        }
         return LibCaptionStatus.OK;
     }
 
     /**
-     * Copies the back buffer to the front buffer and clears the back buffer.
+     * Displays the back buffer by swapping it with the front buffer, then clears the new back buffer.
+     * The buffer being written to keeps its role: captions loaded after the swap still go to the back buffer,
+     * and painted captions to the front buffer.
      *
      * @return the status after the operation
      */
     public LibCaptionStatus end() {
-        // Copy back buffer to front buffer
-        for (int i = 0; i < SCREEN_ROWS; i++) {
-            System.arraycopy(this.back.getCell()[i], 0, this.front.getCell()[i], 0, SCREEN_COLS);
+        CaptionFrameBuffer displayed = this.back;
+        this.back = this.front;
+        this.front = displayed;
+        if (this.write == this.front) {
+            this.write = this.back;
+        } else if (this.write == this.back) {
+            this.write = this.front;
         }
         bufferClear(this.back);
         return LibCaptionStatus.READY;
@@ -269,12 +303,26 @@ public class CaptionFrame {
      * @return {@code LibcaptionStatus.OK} after writing the character
      */
     public LibCaptionStatus eia608WriteChar(String c) {
-        if (this.write == null || c == null || c.isEmpty()) {
+        if (c == null || c.isEmpty()) {
+            return LibCaptionStatus.OK;
+        }
+        return eia608WriteChar(c.codePointAt(0));
+    }
+
+    /**
+     * Writes a character given by its code point into the caption frame at the current row and column,
+     * then increments the column position.
+     *
+     * @param codePoint the code point of the character to write, {@code 0} writes nothing
+     * @return {@code LibcaptionStatus.OK} after writing the character
+     */
+    public LibCaptionStatus eia608WriteChar(int codePoint) {
+        if (this.write == null || codePoint == 0) {
             return LibCaptionStatus.OK;
         }
 
         // Write the character and increment the column
-        if (writeChar(this.state.getRow(), this.state.getCol(), this.state.getStyle(), this.state.getUnderline() != 0, c) == 1) {
+        if (writeChar(this.state.getRow(), this.state.getCol(), this.state.getStyle(), this.state.getUnderline() != 0, codePoint) == 1) {
             this.state.setCol(this.state.getCol() + 1);
         }
 
@@ -305,9 +353,7 @@ public class CaptionFrame {
      */
     public LibCaptionStatus decodeControl(int ccData) {
         Debug.print("caption_frame_decode_control(" + ccData + ")");
-        int[] cc = new int[1];
-        Eia608Control cmd = eia608ParseControl(ccData, cc);
-        Debug.print("eia608_parse_control(" + ccData + ", " + cc[0] + ")");
+        Eia608Control cmd = eia608ParseControl(ccData);
 
         switch (cmd) {
             // PAINT ON
@@ -375,6 +421,11 @@ public class CaptionFrame {
                 this.state.setCol(this.state.getCol() + (cmd.getValue() - TAB_OFFSET_0.getValue()));
                 return LibCaptionStatus.OK;
 
+            case UNKNOWN:
+                Debug.print("Unknown control code");
+                this.unknownControlCount++;
+                return LibCaptionStatus.OK;
+
             // Unhandled
             default:
                 Debug.print("Unhandled");
@@ -390,12 +441,14 @@ public class CaptionFrame {
      * @return the updated {@code LibcaptionStatus}
      */
     public LibCaptionStatus decodeText(int ccData) {
-        Debug.print("caption_frame_decode_text: " + ccData);
-        int[] chan = new int[1];
-        String[] char1 = new String[1];
-        String[] char2 = new String[1];
-        int chars = eia608ToUtf8(ccData, chan, char1, char2);
-        Debug.print(" - chars: " + chars);
+        if (Debug.enabled()) {
+            Debug.print("caption_frame_decode_text: " + ccData);
+        }
+        int text = eia608ToIndex(ccData);
+        int chars = eia608IndexCount(text);
+        if (Debug.enabled()) {
+            Debug.print(" - chars: " + chars);
+        }
 
         if (eia608IsWestEU(ccData)) {
             Debug.print(" - eia608_is_westeu: true");
@@ -405,12 +458,12 @@ public class CaptionFrame {
 
         if (0 < chars) {
             Debug.print(" - 0 < chars");
-            eia608WriteChar(char1[0]);
+            eia608WriteChar(charFromIndex(eia608IndexFirst(text)));
         }
 
         if (1 < chars) {
             Debug.print(" - 1 < chars");
-            eia608WriteChar(char2[0]);
+            eia608WriteChar(charFromIndex(eia608IndexSecond(text)));
         }
 
         return LibCaptionStatus.OK;
@@ -424,18 +477,11 @@ public class CaptionFrame {
      * @return the updated {@code LibcaptionStatus}
      */
     public LibCaptionStatus decodePreamble(int ccData) {
-        Eia608Style[] sty = new Eia608Style[1];
-        int[] row = new int[1];
-        int[] col = new int[1];
-        int[] chn = new int[1];
-        int[] uln = new int[1];
-
-        if (eia608ParsePreamble(ccData, row, col, sty, chn, uln)) {
-            this.state.setRow(row[0]);
-            this.state.setCol(col[0]);
-            this.state.setStyle(sty[0].getValue());
-            this.state.setUnderline(uln[0]);
-        }
+        int preamble = eia608DecodePreamble(ccData);
+        this.state.setRow(eia608PreambleRow(preamble));
+        this.state.setCol(eia608PreambleCol(preamble));
+        this.state.setStyle(eia608PreambleStyle(preamble));
+        this.state.setUnderline(eia608PreambleUnderline(preamble) ? 1 : 0);
 
         return LibCaptionStatus.OK;
     }
@@ -449,14 +495,9 @@ public class CaptionFrame {
      */
     public LibCaptionStatus decodeMidrowChange(int ccData) {
         System.out.printf("caption_frame_decode_midrowchange() cc_data=0x%04X%n", ccData);
-        Eia608Style[] sty = new Eia608Style[1];
-        int[] chn = new int[1];
-        boolean[] uln = new boolean[1];
-
-        if (eia608ParseMidrowChange(ccData, chn, sty, uln)) {
-            this.state.setStyle(sty[0].getValue());
-            this.state.setUnderline(uln[0] ? 1 : 0);
-        }
+        int midrow = eia608DecodeMidrowChange(ccData);
+        this.state.setStyle(eia608MidrowStyle(midrow));
+        this.state.setUnderline(eia608MidrowUnderline(midrow) ? 1 : 0);
 
         return LibCaptionStatus.OK;
     }
@@ -464,21 +505,21 @@ public class CaptionFrame {
     /**
      * Processes the caption frame, decoding EIA-608 data and updating the frame
      * content based on the decoded result. This method handles both text and control
-     * commands.
+     * commands, dispatching on the class of the byte pair found by {@code eia608Classify}.
      *
      * @param ccData    the closed caption data to decode
      * @param timestamp the timestamp of the caption frame
      * @return the updated {@code LibcaptionStatus}
      */
     public LibCaptionStatus decode(int ccData, double timestamp) {
-        Debug.print("caption_frame_decode: " + (ccData) + ", " + String.format("%.6f", timestamp));
-        if (!eia608ParityVerify(ccData)) {
+        int cls = eia608Classify(ccData);
+        if (cls == CLASS_PARITY_ERROR) {
             Debug.print("caption_frame_decode A");
             this.status = LibCaptionStatus.ERROR;
             return this.status;
         }
 
-        if (eia608IsPadding(ccData)) {
+        if (cls == CLASS_PADDING) {
             Debug.print("caption_frame_decode B");
             this.status = LibCaptionStatus.OK;
             return this.status;
@@ -491,7 +532,7 @@ public class CaptionFrame {
         }
 
         // Skip duplicate control commands
-        if ((eia608IsSpecialna(ccData) || eia608IsControl(ccData)) && (ccData == this.state.getCcData())) {
+        if ((cls == CLASS_CONTROL || cls == CLASS_SPECIAL_TEXT) && (ccData == this.state.getCcData())) {
             this.status = LibCaptionStatus.OK;
             Debug.print("caption_frame_decode D");
             return this.status;
@@ -499,30 +540,37 @@ public class CaptionFrame {
 
         this.state.setCcData(ccData);
 
-        if (eia608IsControl(ccData)) {
-            this.status = decodeControl(ccData);
-            Debug.print("caption_frame_decode E");
-        } else if (eia608IsBasicna(ccData) || eia608IsSpecialna(ccData) || eia608IsWestEU(ccData)) {
-            // Don't decode text if we don't know what mode we are in
-            if (this.write == null) {
-                this.status = LibCaptionStatus.OK;
-                Debug.print("caption_frame_decode F");
-                return this.status;
-            }
+        switch (cls) {
+            case CLASS_CONTROL:
+                this.status = decodeControl(ccData);
+                Debug.print("caption_frame_decode E");
+                break;
+            case CLASS_SPECIAL_TEXT, CLASS_BASIC_TEXT, CLASS_EXTENDED_TEXT:
+                // Don't decode text if we don't know what mode we are in
+                if (this.write == null) {
+                    this.status = LibCaptionStatus.OK;
+                    Debug.print("caption_frame_decode F");
+                    return this.status;
+                }
 
-            this.status = decodeText(ccData);
+                this.status = decodeText(ccData);
 
-            // If we are in paint-on mode, display immediately
-            if (this.status == LibCaptionStatus.OK && this.paintOn()) {
-                Debug.print("caption_frame_decode G");
-                this.status = LibCaptionStatus.READY;
-            }
-        } else if (eia608IsPreamble(ccData)) {
-            this.status = decodePreamble(ccData);
-            Debug.print("caption_frame_decode H");
-        } else if (eia608IsMidrowChange(ccData)) {
-            this.status = decodeMidrowChange(ccData);
-            Debug.print("caption_frame_decode I");
+                // If we are in paint-on mode, display immediately
+                if (this.status == LibCaptionStatus.OK && this.paintOn()) {
+                    Debug.print("caption_frame_decode G");
+                    this.status = LibCaptionStatus.READY;
+                }
+                break;
+            case CLASS_PREAMBLE:
+                this.status = decodePreamble(ccData);
+                Debug.print("caption_frame_decode H");
+                break;
+            case CLASS_MIDROW:
+                this.status = decodeMidrowChange(ccData);
+                Debug.print("caption_frame_decode I");
+                break;
+            default:
+                break;
         }
         Debug.print("caption_frame_decode J");
         return this.status;
@@ -531,28 +579,107 @@ public class CaptionFrame {
     /**
      * Converts the caption frame buffer to text. This method retrieves the text content
      * stored in the caption frame cells, organizing it into lines and trimming empty lines.
+     * Only the rows that changed since they were last rendered are rendered again.
      *
      * @return a {@code String} containing the text of the caption frame
      */
     public String toText() {
         StringBuilder sb = new StringBuilder();
         for (int r = 0; r < SCREEN_ROWS; r++) {
-            boolean lineHasContent = false;
-            StringBuilder line = new StringBuilder();
-            for (int c = 0; c < SCREEN_COLS; c++) {
-                CaptionFrameCell cell = this.front.getCell()[r][c];
-                if (cell != null && !cell.getData().isEmpty()) {
-                    lineHasContent = true;
-                    String charStr = cell.getData();
-                    line.append(charStr);
-                } else {
-                    line.append(' ');
-                }
-            }
-            if (lineHasContent) {
-                sb.append(line.toString().trim()).append("\n");
+            String line = this.front.getRowText(r);
+            if (line != null) {
+                sb.append(line).append("\n");
             }
         }
         return sb.toString();
     }
+
+    /**
+     * Appends the text of the caption frame to a character sink, in the same form as {@link #toText()},
+     * without building an intermediate string. The sink can be a {@code StringBuilder}, a {@code Writer}
+     * or a {@code CharBuffer}.
+     *
+     * @param out the sink receiving the text
+     * @throws IOException if the sink fails
+     */
+    public void appendText(Appendable out) throws IOException {
+        for (int r = 0; r < SCREEN_ROWS; r++) {
+            String line = this.front.getRowText(r);
+            if (line != null) {
+                out.append(line).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the text of the caption frame encoded in UTF-8.
+     *
+     * @return the number of bytes {@link #writeText(ByteBuffer)} writes, at most {@link #CAPTION_FRAME_TEXT_BYTES}
+     */
+    public int textLength() {
+        int length = 0;
+        for (int r = 0; r < SCREEN_ROWS; r++) {
+            String line = this.front.getRowText(r);
+            if (line != null) {
+                length += utf8EncodedLength(line) + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the text of the caption frame in UTF-8 at the position of a byte buffer, in the same form
+     * as {@link #toText()}, without building an intermediate string or byte array.
+     * Nothing is written if the buffer cannot hold the whole text.
+     *
+     * The text is only measured when fewer than {@link #CAPTION_FRAME_TEXT_BYTES} bytes remain in the buffer.
+     *
+     * @param out the buffer receiving the encoded text
+     * @return the number of bytes written
+     * @throws BufferOverflowException if fewer than {@link #textLength()} bytes remain in the buffer
+     */
+    public int writeText(ByteBuffer out) {
+        if (out.remaining() < CAPTION_FRAME_TEXT_BYTES && out.remaining() < textLength()) {
+            throw new BufferOverflowException();
+        }
+
+        int start = out.position();
+
+        for (int r = 0; r < SCREEN_ROWS; r++) {
+            String line = this.front.getRowText(r);
+            if (line != null) {
+                utf8Encode(line, out);
+                out.put((byte) '\n');
+            }
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Returns the text of a single row of the displayed caption.
+     *
+     * @param row the row index
+     * @return the trimmed text of the row, or {@code null} if the row holds no character
+     */
+    public String getRowText(int row) {
+        return this.front.getRowText(row);
+    }
+
+    /**
+     * Finds the rows of the displayed caption whose text changed since the previous call, so a consumer can
+     * update only those rows; use {@link #getRowText(int)} to get their new text.
+     *
+     * @return a bit mask of the changed rows, bit {@code n} standing for row {@code n}
+     */
+    public int changedRows() {
+        int changed = 0;
+        for (int r = 0; r < SCREEN_ROWS; r++) {
+            String line = this.front.getRowText(r);
+            if (!Objects.equals(line, this.renderedRows[r])) {
+                this.renderedRows[r] = line;
+                changed |= 1 << r;
+            }
+        }
+        return changed;
+    }
 }
@@ -23,56 +23,189 @@
  */
 package ph.extremelogic.libcaption.caption;
 
+import java.util.Arrays;
+
+import static ph.extremelogic.libcaption.caption.CaptionFrame.SCREEN_COLS;
+import static ph.extremelogic.libcaption.caption.CaptionFrame.SCREEN_ROWS;
+
 /**
  * The {@code CaptionFrameBuffer} class represents a buffer that holds caption cells for
- * a closed caption display. It is used to manage a 2D array of {@link CaptionFrameCell}
- * objects representing the content of a caption frame on the screen.
+ * a closed caption display, {@link CaptionFrame#SCREEN_ROWS} rows of {@link CaptionFrame#SCREEN_COLS} columns.
+ * <p>
+ * The cells are stored row by row in flat primitive arrays rather than as cell objects: the code point of the
+ * character of each cell, {@code 0} for an empty cell, and its style and underline flag packed into a byte.
+ * Clearing or copying the buffer thus only fills or copies array ranges and allocates nothing.
+ * <p>
+ * Rows are reached through a row map from screen row to storage row, so scrolling rows up, as a roll-up
+ * carriage return does, permutes a few row indices and clears a single row in place instead of moving cells.
+ * <p>
+ * The rendered text of each stored row is cached until a cell of the row changes, so rendering a buffer in
+ * which few rows changed only rebuilds those rows.
  */
 public class CaptionFrameBuffer {
+    /** Bit of a packed cell style set when the cell is underlined; the style value takes the bits below. */
+    private static final int UNDERLINE = 0x08;
 
-    /**
-     * A 2D array of {@link CaptionFrameCell} objects representing the individual cells
-     * of the caption frame. The array size is determined by the number of rows and columns
-     * defined by {@link CaptionFrame#SCREEN_ROWS} and {@link CaptionFrame#SCREEN_COLS}.
-     */
-    private CaptionFrameCell[][] cell;
+    /** Code point of the character of every cell, row by row, {@code 0} for an empty cell. */
+    private final int[] codePoints = new int[SCREEN_ROWS * SCREEN_COLS];
+
+    /** Style value and {@link #UNDERLINE} flag of every cell, row by row. */
+    private final byte[] styles = new byte[SCREEN_ROWS * SCREEN_COLS];
+
+    /** Offset in the cell arrays of the first cell of each screen row. */
+    private final int[] rowOffsets = new int[SCREEN_ROWS];
+
+    /** Rendered text of each stored row, indexed by storage row, {@code null} for a row without characters. */
+    private final String[] rowTexts = new String[SCREEN_ROWS];
 
+    /** Bit mask of the stored rows whose cached text is out of date, bit {@code n} standing for storage row {@code n}. */
+    private int dirtyRows;
+
+    /** Scratch space for rendering a row. */
+    private final StringBuilder line = new StringBuilder(SCREEN_COLS);
 
     /**
-     * Constructs a new {@code CaptionFrameBuffer} object. The buffer is initialized
-     * with a 2D array of {@link CaptionFrameCell} objects. Each cell in the array
-     * is initialized with a new {@code CaptionFrameCell} instance.
+     * Constructs a new, empty {@code CaptionFrameBuffer} with its rows stored in screen order.
      */
     public CaptionFrameBuffer() {
-        cell = new CaptionFrameCell[CaptionFrame.SCREEN_ROWS][CaptionFrame.SCREEN_COLS];
-        // Initialize cells
-        for (int i = 0; i < CaptionFrame.SCREEN_ROWS; i++) {
-            for (int j = 0; j < CaptionFrame.SCREEN_COLS; j++) {
-                cell[i][j] = new CaptionFrameCell();
-            }
+        for (int row = 0; row < SCREEN_ROWS; row++) {
+            rowOffsets[row] = row * SCREEN_COLS;
         }
     }
 
     /**
-     * Returns the 2D array of {@link CaptionFrameCell} objects representing the caption frame buffer.
-     * This array contains the individual cells used to display captions on the screen.
+     * Returns the code point of the character in a cell.
      *
-     * @return a 2D array of {@link CaptionFrameCell} objects.
+     * @param row the row index
+     * @param col the column index
+     * @return the code point of the character, or {@code 0} if the cell is empty
      */
-    public CaptionFrameCell[][] getCell() {
-        return cell;
+    public int getCodePoint(int row, int col) {
+        return codePoints[rowOffsets[row] + col];
     }
 
     /**
-     * Clears the caption frame buffer by reinitializing each cell with a new
-     * {@link CaptionFrameCell} object. This effectively resets the content of the
-     * caption frame to an empty state.
+     * Returns the style of a cell.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return the style value of the cell
      */
-    public void clear() {
-        for (int i = 0; i < CaptionFrame.SCREEN_ROWS; i++) {
-            for (int j = 0; j < CaptionFrame.SCREEN_COLS; j++) {
-                cell[i][j] = new CaptionFrameCell();
+    public int getStyle(int row, int col) {
+        return styles[rowOffsets[row] + col] & ~UNDERLINE;
+    }
+
+    /**
+     * Returns whether a cell is underlined.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return {@code true} if the cell is underlined
+     */
+    public boolean isUnderline(int row, int col) {
+        return (styles[rowOffsets[row] + col] & UNDERLINE) != 0;
+    }
+
+    /**
+     * Sets the character and attributes of a cell.
+     *
+     * @param row       the row index
+     * @param col       the column index
+     * @param codePoint the code point of the character, {@code 0} to empty the cell
+     * @param style     the style value of the cell
+     * @param underline whether the cell is underlined
+     */
+    public void set(int row, int col, int codePoint, int style, boolean underline) {
+        int index = rowOffsets[row] + col;
+        codePoints[index] = codePoint;
+        styles[index] = (byte) (style | (underline ? UNDERLINE : 0));
+        dirtyRows |= 1 << (rowOffsets[row] / SCREEN_COLS);
+    }
+
+    /**
+     * Returns the text of a row, rendered as {@link CaptionFrame#toText()} shows it: empty cells read as spaces
+     * and the text is trimmed. The text is rendered again only if the row changed since it was last rendered.
+     *
+     * @param row the row index
+     * @return the text of the row, or {@code null} if the row holds no character
+     */
+    public String getRowText(int row) {
+        int offset = rowOffsets[row];
+        int storageRow = offset / SCREEN_COLS;
+        if ((dirtyRows & (1 << storageRow)) != 0) {
+            rowTexts[storageRow] = renderRow(offset);
+            dirtyRows &= ~(1 << storageRow);
+        }
+        return rowTexts[storageRow];
+    }
+
+    /**
+     * Renders the stored row starting at the given offset.
+     *
+     * @param offset the offset of the first cell of the row
+     * @return the trimmed text of the row, or {@code null} if the row holds no character
+     */
+    private String renderRow(int offset) {
+        boolean lineHasContent = false;
+        line.setLength(0);
+        for (int i = offset; i < offset + SCREEN_COLS; i++) {
+            if (codePoints[i] != 0) {
+                lineHasContent = true;
+                line.appendCodePoint(codePoints[i]);
+            } else {
+                line.append(' ');
             }
         }
+        return lineHasContent ? line.toString().trim() : null;
+    }
+
+    /**
+     * Clears the caption frame buffer, resetting every cell to an empty, unstyled cell.
+     */
+    public void clear() {
+        Arrays.fill(codePoints, 0);
+        Arrays.fill(styles, (byte) 0);
+        Arrays.fill(rowTexts, null);
+        dirtyRows = 0;
+    }
+
+    /**
+     * Clears a single row of the buffer.
+     *
+     * @param row the row index
+     */
+    public void clearRow(int row) {
+        int offset = rowOffsets[row];
+        Arrays.fill(codePoints, offset, offset + SCREEN_COLS, 0);
+        Arrays.fill(styles, offset, offset + SCREEN_COLS, (byte) 0);
+        rowTexts[offset / SCREEN_COLS] = null;
+        dirtyRows &= ~(1 << (offset / SCREEN_COLS));
+    }
+
+    /**
+     * Scrolls the rows from {@code top} to the last row up by one row: row {@code top} is discarded,
+     * every row below it moves up, and the last row becomes empty. Only the row map changes and the
+     * storage of the discarded row is cleared for reuse as the last row.
+     *
+     * @param top the first row scrolled, which is discarded
+     */
+    public void scrollUp(int top) {
+        int reused = rowOffsets[top];
+        System.arraycopy(rowOffsets, top + 1, rowOffsets, top, SCREEN_ROWS - 1 - top);
+        rowOffsets[SCREEN_ROWS - 1] = reused;
+        clearRow(SCREEN_ROWS - 1);
+    }
+
+    /**
+     * Copies all cells of another buffer into this buffer.
+     *
+     * @param other the buffer to copy
+     */
+    public void copyFrom(CaptionFrameBuffer other) {
+        System.arraycopy(other.codePoints, 0, codePoints, 0, codePoints.length);
+        System.arraycopy(other.styles, 0, styles, 0, styles.length);
+        System.arraycopy(other.rowOffsets, 0, rowOffsets, 0, rowOffsets.length);
+        System.arraycopy(other.rowTexts, 0, rowTexts, 0, rowTexts.length);
+        dirtyRows = other.dirtyRows;
     }
 }
@@ -28,6 +28,9 @@ import lombok.Data;
 /**
  * Represents a single cell in a caption frame, with properties for text styling
  * such as underline, style, and the text data itself.
+ * <p>
+ * A {@link CaptionFrameBuffer} does not hold cell objects; this is a snapshot of one of its cells,
+ * see {@link CaptionFrame#frameBufferCell(CaptionFrameBuffer, int, int)}.
  */
 @Data
 public class CaptionFrameCell {
@@ -23,6 +23,7 @@
  */
 package ph.extremelogic.libcaption.cea708;
 
+import ph.extremelogic.libcaption.caption.CaptionChannels;
 import ph.extremelogic.libcaption.caption.CaptionFrame;
 import ph.extremelogic.libcaption.constant.CcType;
 import ph.extremelogic.libcaption.constant.ItuT35CountryCode;
@@ -30,11 +31,8 @@ import ph.extremelogic.libcaption.constant.ItuTt35ProviderCode;
 import ph.extremelogic.libcaption.constant.LibCaptionStatus;
 import ph.extremelogic.libcaption.model.CcData;
 import ph.extremelogic.libcaption.model.UserData;
-import ph.extremelogic.texttrack.TextTrackException;
 import ph.extremelogic.texttrack.utils.Debug;
 
-import java.util.Arrays;
-
 import static ph.extremelogic.texttrack.utils.Debug.printDataArray;
 
 /**
@@ -43,6 +41,9 @@ import static ph.extremelogic.texttrack.utils.Debug.printDataArray;
  * the parsed data to caption frames.
  */
 public class Cea708 {
+    /** The {@code user_data_type_code} of ATSC A/53 {@code cc_data}, the only user data carrying captions. */
+    public static final int USER_DATA_TYPE_CC_DATA = 3;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -77,23 +78,22 @@ public class Cea708 {
      * {@code cea708_parse_user_data_type_strcture} in C.
      *
      * @param data the byte array containing the CEA-708 data
+     * @param offset the offset of the user data type structure in the array
      * @param size the size of the data in bytes
      * @param userData the {@code UserData} object to populate
      * @return the populated {@code UserData} object
      */
-    private static UserData parseUserDataTypeStructure(byte[] data, int size, UserData userData) {
-        userData.setProcessEmDataFlag((data[0] & 0x80) != 0);
-        userData.setProcessCcDataFlag((data[0] & 0x40) != 0);
-        userData.setAdditionalDataFlag((data[0] & 0x20) != 0);
-        userData.setCcCount(data[0] & 0x1F);
-        userData.setEmData(data[1] & 0xFF);
-
-        int offset = 2;
-        for (int i = 0; offset + 3 <= size && i < userData.getCcCount(); i++) {
-            userData.getCcData()[i].setMarkerBits((data[offset] >> 3) & 0xFF);
-            userData.getCcData()[i].setCcValid((((data[offset] >> 2) & 0xFF) & 0x01) != 0);
-            userData.getCcData()[i].setCcType(CcType.values()[((data[offset] & 0xFF) & 0x03)]);
-            userData.getCcData()[i].setCcData(((data[offset + 1] & 0xFF) << 8) | (data[offset + 2] & 0xFF));
+    private static UserData parseUserDataTypeStructure(byte[] data, int offset, int size, UserData userData) {
+        userData.setProcessEmDataFlag((data[offset] & 0x80) != 0);
+        userData.setProcessCcDataFlag((data[offset] & 0x40) != 0);
+        userData.setAdditionalDataFlag((data[offset] & 0x20) != 0);
+        userData.setCcCount(data[offset] & 0x1F);
+        userData.setEmData(data[offset + 1] & 0xFF);
+
+        int end = offset + size;
+        offset += 2;
+        for (int i = 0; offset + 3 <= end && i < userData.getCcCount(); i++) {
+            userData.setCcTriplet(i, data, offset);
             offset += 3;
         }
         return userData;
@@ -108,33 +108,48 @@ public class Cea708 {
      * @return the status of the parsing operation, represented as a {@code LibCaptionStatus}
      */
     public static LibCaptionStatus parseH264(byte[] data, int size, Cea708Data cea708Data) {
+        return parseH264(data, 0, size, cea708Data);
+    }
+
+    /**
+     * Parses H.264 video stream data for CEA-708 captioning read in place from a range of a byte array,
+     * such as the payload view of an {@link ph.extremelogic.libcaption.model.SeiMessage}.
+     * <p>
+     * Like {@code cea708_parse_h264} in C, payloads that carry no {@code cc_data} (an unknown country or
+     * provider, or another user data type such as AFD and bar data) are not an error: they are left with no
+     * closed caption data and {@link #hasCcData(Cea708Data)} tells them apart.
+     *
+     * @param data the byte array containing the H.264 video stream data
+     * @param start the offset of the first byte of the data in the array
+     * @param size the size of the data in bytes
+     * @param cea708Data the {@code Cea708Data} object to populate
+     * @return {@code ERROR} if the payload is truncated, {@code OK} otherwise
+     */
+    public static LibCaptionStatus parseH264(byte[] data, int start, int size, Cea708Data cea708Data) {
         Debug.print("cea708_parse_h264 [START] <<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
-        printDataArray(data, data.length);
+        printDataArray(data, start, size);
 
         if (size < 3) {
             return LibCaptionStatus.ERROR;
         }
 
-        Debug.print("  country: " + (data[0] & 0xFF));
-        Debug.print("  provider: " + ((data[1] << 8) | (data[2] & 0xFF)));
-        cea708Data.setCountry(ItuT35CountryCode.fromValue(data[0] & 0xFF));
-        cea708Data.setProvider(ItuTt35ProviderCode.fromValue((data[1] << 8) | (data[2] & 0xFF)));
+        Debug.print("  country: " + (data[start] & 0xFF));
+        Debug.print("  provider: " + ((data[start + 1] << 8) | (data[start + 2] & 0xFF)));
+        cea708Data.setCountry(ItuT35CountryCode.find(data[start] & 0xFF));
+        cea708Data.setProvider(ItuTt35ProviderCode.find((data[start + 1] << 8) | (data[start + 2] & 0xFF)));
         cea708Data.setUserIdentifier(0);
         cea708Data.setUserDataTypeCode((byte) 0);
+        cea708Data.getUserData().setCcCount(0);
 
         int offset = 3;
 
-        Debug.print("  data[0]: " + (data[offset] & 0xFF));
-        Debug.print("  data[1]: " + (data[offset + 1] & 0xFF));
-        Debug.print("  data[2]: " + (data[offset + 2] & 0xFF));
-
         if (cea708Data.getProvider() == ItuTt35ProviderCode.T_35_PROVIDER_ATSC) {
-            System.out.println("" + size + " - < 4");
             if (size - offset < 4) {
                 return LibCaptionStatus.ERROR;
             }
 
-            cea708Data.setUserIdentifier(((data[offset] << 24) | (data[offset + 1] << 16) | (data[offset + 2] << 8) | data[offset + 3]));
+            int pos = start + offset;
+            cea708Data.setUserIdentifier(((data[pos] << 24) | (data[pos + 1] << 16) | (data[pos + 2] << 8) | data[pos + 3]));
             Debug.print("user identifier: " + cea708Data.getUserIdentifier());
             offset += 4;
         }
@@ -143,7 +158,7 @@ public class Cea708 {
             if (size - offset < 1) {
                 return LibCaptionStatus.ERROR;
             }
-            cea708Data.setUserDataTypeCode(data[offset]);
+            cea708Data.setUserDataTypeCode(data[start + offset]);
             Debug.print("user data type code: " + cea708Data.getUserDataTypeCode());
             offset += 1;
         }
@@ -152,25 +167,36 @@ public class Cea708 {
             if (size - offset < 1) {
                 return LibCaptionStatus.ERROR;
             }
-            cea708Data.setDirectvUserDataLength(data[offset]);
+            cea708Data.setDirectvUserDataLength(data[start + offset]);
             Debug.print("user data length: " + cea708Data.getDirectvUserDataLength());
             offset += 1;
         }
 
-        if (cea708Data.getUserDataTypeCode() == 3 && size - offset >= 2) {
-            data = Arrays.copyOfRange(data, offset, data.length);
+        if (cea708Data.getUserDataTypeCode() == USER_DATA_TYPE_CC_DATA) {
+            if (size - offset < 2) {
+                return LibCaptionStatus.ERROR;
+            }
             Debug.print("cea708_parse_user_data_type_strcture before");
-            printDataArray(data, data.length);
-            UserData userData = parseUserDataTypeStructure(data, data.length, cea708Data.getUserData());
+            printDataArray(data, start + offset, size - offset);
+            UserData userData = parseUserDataTypeStructure(data, start + offset, size - offset, cea708Data.getUserData());
             cea708Data.setUserData(userData);
-            Debug.print("cea708_parse_user_data_type_strcture result");
-            printDataArray(data, data.length);
         } else {
-            throw new TextTrackException("Unsupported CEA708 data type code " + cea708Data.getUserDataTypeCode());
+            Debug.print("Skipping user data type code " + cea708Data.getUserDataTypeCode());
         }
         return LibCaptionStatus.OK;
     }
 
+    /**
+     * Checks whether parsed CEA-708 data holds {@code cc_data}, as opposed to another kind of T.35 payload
+     * skipped by {@link #parseH264(byte[], int, int, Cea708Data)}.
+     *
+     * @param cea708Data the parsed {@code Cea708Data}
+     * @return {@code true} if the data holds {@code cc_data}
+     */
+    public static boolean hasCcData(Cea708Data cea708Data) {
+        return cea708Data.getUserDataTypeCode() == USER_DATA_TYPE_CC_DATA;
+    }
+
     /**
      * Converts parsed CEA-708 data into a {@code CaptionFrame}, handling valid CC data.
      *
@@ -179,13 +205,14 @@ public class Cea708 {
      * @return the status of the operation, represented as a {@code LibCaptionStatus}
      */
     public static LibCaptionStatus toCaptionFrame(CaptionFrame frame, Cea708Data cea708Data) {
-        int count = cea708Data.getUserData().getCcCount();
+        UserData userData = cea708Data.getUserData();
+        int count = userData.getCcCount();
         LibCaptionStatus status = LibCaptionStatus.OK;
 
         for (int i = 0; i < count; i++) {
-            boolean valid = cea708Data.getUserData().getCcData()[i].isCcValid();
-            CcType type = cea708Data.getUserData().getCcData()[i].getCcType();
-            int ccData = cea708Data.getUserData().getCcData()[i].getCcData();
+            boolean valid = userData.isCcValid(i);
+            CcType type = userData.getCcType(i);
+            int ccData = userData.getCcData(i);
 
             if (valid && type == CcType.NTSC_CC_FIELD_1) {
                 status = frame.decode(ccData, cea708Data.getTimestamp());
@@ -195,6 +222,49 @@ public class Cea708 {
         return status;
     }
 
+    /**
+     * Decodes the valid CEA-608 triplets of both fields of parsed CEA-708 data into the caption frames of
+     * channels CC1 to CC4 in one pass.
+     *
+     * @param channels the caption channels to populate
+     * @param cea708Data the {@code Cea708Data} containing the parsed data
+     * @return {@code READY} if the frame of any channel became ready to display, {@code OK} otherwise
+     */
+    public static LibCaptionStatus toCaptionChannels(CaptionChannels channels, Cea708Data cea708Data) {
+        UserData userData = cea708Data.getUserData();
+        int count = userData.getCcCount();
+        LibCaptionStatus status = LibCaptionStatus.OK;
+
+        for (int i = 0; i < count; i++) {
+            CcType type = userData.getCcType(i);
+            if (userData.isCcValid(i) && (type == CcType.NTSC_CC_FIELD_1 || type == CcType.NTSC_CC_FIELD_2)) {
+                int field = type == CcType.NTSC_CC_FIELD_1 ? 0 : 1;
+                status = CaptionFrame.statusUpdate(status, channels.decode(field, userData.getCcData(i), cea708Data.getTimestamp()));
+            }
+        }
+
+        return status;
+    }
+
+    /**
+     * Feeds the valid DTVCC triplets of parsed CEA-708 data to a CEA-708 service decoder.
+     * This runs alongside {@link #toCaptionFrame(CaptionFrame, Cea708Data)} on the same data.
+     *
+     * @param dtvcc the DTVCC decoder to feed
+     * @param cea708Data the {@code Cea708Data} containing the parsed data
+     */
+    public static void toDtvcc(Dtvcc dtvcc, Cea708Data cea708Data) {
+        UserData userData = cea708Data.getUserData();
+        int count = userData.getCcCount();
+
+        for (int i = 0; i < count; i++) {
+            CcType type = userData.getCcType(i);
+            if (userData.isCcValid(i) && (type == CcType.DTVCC_PACKET_START || type == CcType.DTVCC_PACKET_DATA)) {
+                dtvcc.decode(type, userData.getCcData(i), cea708Data.getTimestamp());
+            }
+        }
+    }
+
     /**
      * Encodes caption data into a {@code CcData} object, equivalent to {@code cea708_encode_cc_data} in C.
      *
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption.cea708;
+
+import lombok.Getter;
+import ph.extremelogic.libcaption.constant.CcType;
+import ph.extremelogic.texttrack.utils.Debug;
+
+/**
+ * The {@code Dtvcc} class decodes the CEA-708 DTVCC transport carried by {@link CcType#DTVCC_PACKET_START} and
+ * {@link CcType#DTVCC_PACKET_DATA} triplets: it reassembles caption channel packets, splits them into service
+ * blocks and hands each block to the {@link DtvccService} decoder of its service.
+ * <p>
+ * Services 1 to 6 (the standard services) are decoded; blocks of extended services are skipped.
+ * Whenever a packet changes the text displayed by a service, the {@link ServiceListener} is notified.
+ */
+public class Dtvcc {
+    /** Number of standard caption services. */
+    public static final int SERVICE_COUNT = 6;
+
+    /** Maximum size of a caption channel packet, header included. */
+    private static final int MAX_PACKET_SIZE = 128;
+
+    /** Service number announcing an extended service number in the next byte. */
+    private static final int EXTENDED_SERVICE = 7;
+
+    /**
+     * Listener notified when the text displayed by a caption service changes.
+     */
+    @FunctionalInterface
+    public interface ServiceListener {
+        /**
+         * Called after a caption channel packet changed the text displayed by a service.
+         *
+         * @param service the service decoder, whose {@link DtvccService#toText()} renders the new display
+         * @param timestamp the presentation time of the packet, in seconds
+         */
+        void onDisplay(DtvccService service, double timestamp);
+    }
+
+    /** The decoders of services 1 to 6, at index {@code service - 1}. */
+    @Getter
+    private final DtvccService[] services = new DtvccService[SERVICE_COUNT];
+
+    private final ServiceListener listener;
+
+    /** The caption channel packet being assembled. */
+    private final byte[] packet = new byte[MAX_PACKET_SIZE];
+
+    /** The number of bytes of the packet received so far, or 0 when waiting for a packet start. */
+    private int packetLength;
+
+    /** The total size of the packet being assembled, header included. */
+    private int packetSize;
+
+    /** The number of packets dropped because they were interrupted by the start of another packet. */
+    @Getter
+    private int droppedPackets;
+
+    /**
+     * Constructs a DTVCC decoder.
+     *
+     * @param listener the listener notified of display changes
+     */
+    public Dtvcc(ServiceListener listener) {
+        this.listener = listener;
+        for (int i = 0; i < SERVICE_COUNT; i++) {
+            services[i] = new DtvccService(i + 1);
+        }
+    }
+
+    /**
+     * Returns the decoder of a standard service.
+     *
+     * @param serviceNumber the service number, from 1 to {@link #SERVICE_COUNT}
+     * @return the service decoder
+     */
+    public DtvccService getService(int serviceNumber) {
+        return services[serviceNumber - 1];
+    }
+
+    /**
+     * Feeds one valid DTVCC triplet to the packet assembler.
+     *
+     * @param type the triplet type, {@link CcType#DTVCC_PACKET_START} or {@link CcType#DTVCC_PACKET_DATA}
+     * @param ccData the two data bytes of the triplet
+     * @param timestamp the presentation time of the triplet, in seconds
+     */
+    public void decode(CcType type, int ccData, double timestamp) {
+        if (type == CcType.DTVCC_PACKET_START) {
+            if (packetLength > 0) {
+                Debug.print("DTVCC packet interrupted after " + packetLength + " of " + packetSize + " bytes");
+                droppedPackets++;
+            }
+            int sizeCode = (ccData >> 8) & 0x3F;
+            packetSize = sizeCode == 0 ? MAX_PACKET_SIZE : sizeCode * 2;
+            packetLength = 0;
+        } else if (type != CcType.DTVCC_PACKET_DATA || packetLength == 0) {
+            return;
+        }
+
+        packet[packetLength++] = (byte) (ccData >> 8);
+        if (packetLength < packetSize) {
+            packet[packetLength++] = (byte) ccData;
+        }
+        if (packetLength == packetSize) {
+            decodePacket(timestamp);
+            packetLength = 0;
+        }
+    }
+
+    /**
+     * Splits a complete caption channel packet into service blocks and decodes them.
+     *
+     * @param timestamp the presentation time of the packet, in seconds
+     */
+    private void decodePacket(double timestamp) {
+        int pos = 1;
+        while (pos < packetSize) {
+            int serviceNumber = (packet[pos] & 0xFF) >> 5;
+            int blockSize = packet[pos] & 0x1F;
+            pos++;
+            if (serviceNumber == 0 || blockSize == 0) {
+                break; // Null service block: the rest of the packet is padding
+            }
+            if (serviceNumber == EXTENDED_SERVICE) {
+                pos++; // Extended service number, decoding of extended services is not supported
+            }
+            blockSize = Math.max(0, Math.min(blockSize, packetSize - pos));
+            if (serviceNumber <= SERVICE_COUNT) {
+                services[serviceNumber - 1].decode(packet, pos, blockSize);
+            }
+            pos += blockSize;
+        }
+
+        for (DtvccService service : services) {
+            if (service.isChanged()) {
+                service.clearChanged();
+                listener.onDisplay(service, timestamp);
+            }
+        }
+    }
+}
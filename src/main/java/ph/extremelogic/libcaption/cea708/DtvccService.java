@@ -0,0 +1,400 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption.cea708;
+
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+/**
+ * The {@code DtvccService} class interprets the service blocks of one CEA-708 caption service and maintains
+ * its window model: the eight {@link DtvccWindow windows}, the current window and the text written to them.
+ * <p>
+ * All C0, C1, G0 and G1 codes and the extended C2, C3, G2 and G3 code sets are parsed with their parameters, so
+ * that the code stream stays in sync. Commands that only affect presentation (pen and window attributes,
+ * colors, delays) are skipped; DLY and DLC are ignored, so the display is updated as soon as it is decoded.
+ */
+public class DtvccService {
+    /** Number of windows of a service. */
+    public static final int WINDOW_COUNT = 8;
+
+    private static final int ETX = 0x03;
+    private static final int BS = 0x08;
+    private static final int FF = 0x0C;
+    private static final int CR = 0x0D;
+    private static final int HCR = 0x0E;
+    private static final int EXT1 = 0x10;
+    private static final int P16 = 0x18;
+
+    private static final int CW0 = 0x80;
+    private static final int CLW = 0x88;
+    private static final int DSW = 0x89;
+    private static final int HDW = 0x8A;
+    private static final int TGW = 0x8B;
+    private static final int DLW = 0x8C;
+    private static final int DLY = 0x8D;
+    private static final int DLC = 0x8E;
+    private static final int RST = 0x8F;
+    private static final int SPA = 0x90;
+    private static final int SPC = 0x91;
+    private static final int SPL = 0x92;
+    private static final int SWA = 0x97;
+    private static final int DF0 = 0x98;
+
+    /** The character substituted for codes without a Unicode equivalent. */
+    private static final char UNSUPPORTED_CHARACTER = '_';
+
+    /** The service number, from 1 to 63. */
+    @Getter
+    private final int serviceNumber;
+
+    /** The windows of the service, indexed by window ID. */
+    @Getter
+    private final DtvccWindow[] windows = new DtvccWindow[WINDOW_COUNT];
+
+    /** The ID of the current window, or -1 if no window has been defined yet. */
+    @Getter
+    private int currentWindow = -1;
+
+    /** Whether the displayed text changed since the last call to {@link #clearChanged()}. */
+    @Getter
+    private boolean changed;
+
+    /**
+     * Constructs a service decoder with no window defined.
+     *
+     * @param serviceNumber the service number
+     */
+    public DtvccService(int serviceNumber) {
+        this.serviceNumber = serviceNumber;
+        for (int i = 0; i < WINDOW_COUNT; i++) {
+            windows[i] = new DtvccWindow();
+        }
+    }
+
+    /**
+     * Resets the service, deleting all windows, as done by the Reset command.
+     */
+    public void reset() {
+        for (DtvccWindow window : windows) {
+            changed |= window.isVisible();
+            window.delete();
+        }
+        currentWindow = -1;
+    }
+
+    /**
+     * Acknowledges the last display change.
+     */
+    public void clearChanged() {
+        changed = false;
+    }
+
+    /**
+     * Interprets a service block.
+     *
+     * @param data the array holding the service block
+     * @param offset the offset of the first byte of the service block data
+     * @param size the size of the service block data
+     */
+    public void decode(byte[] data, int offset, int size) {
+        int end = offset + size;
+        int pos = offset;
+        while (pos < end) {
+            int code = data[pos++] & 0xFF;
+            if (code < 0x20) {
+                pos = decodeC0(code, data, pos, end);
+            } else if (code < 0x80) {
+                write(code == 0x7F ? '\u266A' : (char) code);
+            } else if (code < 0xA0) {
+                pos = decodeC1(code, data, pos, end);
+            } else {
+                write((char) code);
+            }
+        }
+    }
+
+    /**
+     * Interprets a C0 control code and the extended code sets introduced by EXT1.
+     *
+     * @param code the control code
+     * @param data the array holding the service block
+     * @param pos the position of the byte following the code
+     * @param end the end of the service block data
+     * @return the position of the next code
+     */
+    private int decodeC0(int code, byte[] data, int pos, int end) {
+        switch (code) {
+            case ETX:
+                return pos;
+            case BS:
+                withCurrentWindow(DtvccWindow::backspace);
+                return pos;
+            case FF:
+                withCurrentWindow(DtvccWindow::clear);
+                return pos;
+            case CR:
+                withCurrentWindow(DtvccWindow::carriageReturn);
+                return pos;
+            case HCR:
+                withCurrentWindow(DtvccWindow::horizontalCarriageReturn);
+                return pos;
+            case EXT1:
+                return pos < end ? decodeExtended(data[pos] & 0xFF, data, pos + 1, end) : end;
+            case P16:
+                if (pos + 2 <= end) {
+                    write((char) (((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF)));
+                }
+                return pos + 2;
+            default:
+                // Other C0 codes take no parameter up to 0x0F, one from 0x10 and two from 0x18
+                return pos + (code < 0x10 ? 0 : code < 0x18 ? 1 : 2);
+        }
+    }
+
+    /**
+     * Interprets a code of the C2, C3, G2 or G3 code sets, which follows an EXT1 code.
+     *
+     * @param code the extended code
+     * @param data the array holding the service block
+     * @param pos the position of the byte following the code
+     * @param end the end of the service block data
+     * @return the position of the next code
+     */
+    private int decodeExtended(int code, byte[] data, int pos, int end) {
+        if (code < 0x20) {
+            // C2: no parameter up to 0x07, then 1, 2 and 3 parameter bytes per group of eight codes
+            return pos + (code >> 3);
+        } else if (code < 0x80) {
+            write(g2Character(code));
+            return pos;
+        } else if (code < 0x90) {
+            // C3: 4 parameter bytes up to 0x87, 5 up to 0x8F
+            return pos + (code < 0x88 ? 4 : 5);
+        } else if (code < 0xA0) {
+            // C3 variable length command: the length is in the low 6 bits of the header byte
+            return pos < end ? pos + 1 + (data[pos] & 0x3F) : end;
+        }
+        write(code == 0xA0 ? '\u33C4' : UNSUPPORTED_CHARACTER);
+        return pos;
+    }
+
+    /**
+     * Interprets a C1 caption command.
+     *
+     * @param code the command code
+     * @param data the array holding the service block
+     * @param pos the position of the first parameter byte
+     * @param end the end of the service block data
+     * @return the position of the next code
+     */
+    private int decodeC1(int code, byte[] data, int pos, int end) {
+        if (code < CLW) {
+            int id = code - CW0;
+            if (windows[id].isDefined()) {
+                currentWindow = id;
+            }
+            return pos;
+        }
+        if (code >= DF0) {
+            if (pos + 6 <= end) {
+                defineWindow(code - DF0, data, pos);
+            }
+            return pos + 6;
+        }
+
+        switch (code) {
+            case CLW:
+            case DSW:
+            case HDW:
+            case TGW:
+            case DLW:
+                if (pos < end) {
+                    applyToWindows(code, data[pos] & 0xFF);
+                }
+                return pos + 1;
+            case DLY:
+                return pos + 1;
+            case DLC:
+                return pos;
+            case RST:
+                reset();
+                return pos;
+            case SPA:
+                return pos + 2;
+            case SPC:
+                return pos + 3;
+            case SPL:
+                if (pos + 2 <= end && currentWindow >= 0) {
+                    windows[currentWindow].setPenLocation(data[pos] & 0x0F, data[pos + 1] & 0x3F);
+                }
+                return pos + 2;
+            case SWA:
+                return pos + 4;
+            default:
+                // 0x93 to 0x96 are reserved and take no parameter
+                return pos;
+        }
+    }
+
+    /**
+     * Applies a ClearWindows, DisplayWindows, HideWindows, ToggleWindows or DeleteWindows command.
+     *
+     * @param code the command code
+     * @param bitmap the windows affected, bit {@code n} standing for window {@code n}
+     */
+    private void applyToWindows(int code, int bitmap) {
+        for (int id = 0; id < WINDOW_COUNT; id++) {
+            DtvccWindow window = windows[id];
+            if ((bitmap & (1 << id)) == 0 || !window.isDefined()) {
+                continue;
+            }
+            boolean wasVisible = window.isVisible();
+            switch (code) {
+                case CLW:
+                    window.clear();
+                    break;
+                case DSW:
+                    window.setVisible(true);
+                    break;
+                case HDW:
+                    window.setVisible(false);
+                    break;
+                case TGW:
+                    window.setVisible(!wasVisible);
+                    break;
+                default:
+                    window.delete();
+                    if (currentWindow == id) {
+                        currentWindow = -1;
+                    }
+                    break;
+            }
+            changed |= wasVisible || window.isVisible();
+        }
+    }
+
+    /**
+     * Applies a DefineWindow command, which also makes the window current.
+     *
+     * @param id the window ID
+     * @param data the array holding the six parameter bytes
+     * @param pos the position of the first parameter byte
+     */
+    private void defineWindow(int id, byte[] data, int pos) {
+        DtvccWindow window = windows[id];
+        boolean wasVisible = window.isVisible();
+        boolean visible = (data[pos] & 0x20) != 0;
+        int priority = data[pos] & 0x07;
+        int anchorVertical = data[pos + 1] & 0x7F;
+        int anchorHorizontal = data[pos + 2] & 0xFF;
+        int rowCount = Math.min((data[pos + 3] & 0x0F) + 1, DtvccWindow.MAX_ROWS);
+        int columnCount = Math.min((data[pos + 4] & 0x3F) + 1, DtvccWindow.MAX_COLUMNS);
+
+        window.define(visible, priority, anchorVertical, anchorHorizontal, rowCount, columnCount);
+        currentWindow = id;
+        changed |= wasVisible || visible;
+    }
+
+    /**
+     * Writes a character to the current window.
+     *
+     * @param c the character to write
+     */
+    private void write(char c) {
+        if (currentWindow >= 0) {
+            DtvccWindow window = windows[currentWindow];
+            window.write(c);
+            changed |= window.isVisible();
+        }
+    }
+
+    /**
+     * Runs an editing command on the current window, if any.
+     *
+     * @param command the command to run
+     */
+    private void withCurrentWindow(Consumer<DtvccWindow> command) {
+        if (currentWindow >= 0) {
+            DtvccWindow window = windows[currentWindow];
+            command.accept(window);
+            changed |= window.isVisible();
+        }
+    }
+
+    /**
+     * Renders the text of the visible windows, highest priority first.
+     *
+     * @return the displayed text, one line per non-empty row
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        for (int priority = 0; priority < WINDOW_COUNT; priority++) {
+            for (DtvccWindow window : windows) {
+                if (window.isVisible() && window.getPriority() == priority) {
+                    window.appendText(sb);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Maps a character of the G2 code set to Unicode.
+     *
+     * @param code the G2 code, from 0x20 to 0x7F
+     * @return the corresponding character
+     */
+    private static char g2Character(int code) {
+        switch (code) {
+            case 0x20: return ' ';      // Transparent space
+            case 0x21: return '\u00A0'; // Non-breaking transparent space
+            case 0x25: return '\u2026';
+            case 0x2A: return '\u0160';
+            case 0x2C: return '\u0152';
+            case 0x30: return '\u2588';
+            case 0x31: return '\u2018';
+            case 0x32: return '\u2019';
+            case 0x33: return '\u201C';
+            case 0x34: return '\u201D';
+            case 0x35: return '\u2022';
+            case 0x39: return '\u2122';
+            case 0x3A: return '\u0161';
+            case 0x3C: return '\u0153';
+            case 0x3D: return '\u2120';
+            case 0x3F: return '\u0178';
+            case 0x76: return '\u215B';
+            case 0x77: return '\u215C';
+            case 0x78: return '\u215D';
+            case 0x79: return '\u215E';
+            case 0x7A: return '\u2502';
+            case 0x7B: return '\u2510';
+            case 0x7C: return '\u2514';
+            case 0x7D: return '\u2500';
+            case 0x7E: return '\u2518';
+            case 0x7F: return '\u250C';
+            default: return UNSUPPORTED_CHARACTER;
+        }
+    }
+}
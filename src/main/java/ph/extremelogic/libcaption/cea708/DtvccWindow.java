@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption.cea708;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+/**
+ * The {@code DtvccWindow} class holds the state of one of the eight windows of a CEA-708 caption service:
+ * its attributes as set by the DefineWindow command, its visibility, the pen location and the text grid.
+ * Styling (pen and window attributes, colors) is parsed by {@link DtvccService} but not kept, since only
+ * the caption text is rendered.
+ */
+@Getter
+public class DtvccWindow {
+    /** Maximum number of rows of a window. */
+    public static final int MAX_ROWS = 16;
+
+    /** Maximum number of columns of a window. */
+    public static final int MAX_COLUMNS = 64;
+
+    /** Whether the window has been created by a DefineWindow command and not deleted since. */
+    private boolean defined;
+
+    /** Whether the window is displayed. */
+    @Setter
+    private boolean visible;
+
+    /** The display priority, 0 being the highest. */
+    private int priority;
+
+    /** The vertical anchor position. */
+    private int anchorVertical;
+
+    /** The horizontal anchor position. */
+    private int anchorHorizontal;
+
+    /** The number of rows of text. */
+    private int rowCount;
+
+    /** The number of columns of text. */
+    private int columnCount;
+
+    /** The row of the pen. */
+    private int penRow;
+
+    /** The column of the pen. */
+    private int penColumn;
+
+    /** The text grid, {@code 0} marking an empty cell. */
+    private final char[][] text = new char[MAX_ROWS][MAX_COLUMNS];
+
+    /**
+     * Creates or updates the window from the parameters of a DefineWindow command. A new window starts empty
+     * with the pen at its origin; redefining an existing window keeps its text and pen location.
+     *
+     * @param visible whether the window is displayed
+     * @param priority the display priority
+     * @param anchorVertical the vertical anchor position
+     * @param anchorHorizontal the horizontal anchor position
+     * @param rowCount the number of rows of text, from 1 to {@link #MAX_ROWS}
+     * @param columnCount the number of columns of text, from 1 to {@link #MAX_COLUMNS}
+     */
+    public void define(boolean visible, int priority, int anchorVertical, int anchorHorizontal, int rowCount, int columnCount) {
+        if (!defined) {
+            clear();
+        }
+        this.defined = true;
+        this.visible = visible;
+        this.priority = priority;
+        this.anchorVertical = anchorVertical;
+        this.anchorHorizontal = anchorHorizontal;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.penRow = Math.min(penRow, rowCount - 1);
+        this.penColumn = Math.min(penColumn, columnCount - 1);
+    }
+
+    /**
+     * Deletes the window, as done by the DeleteWindows and Reset commands.
+     */
+    public void delete() {
+        defined = false;
+        visible = false;
+        clear();
+    }
+
+    /**
+     * Erases the text of the window and moves the pen to its origin.
+     */
+    public void clear() {
+        for (char[] row : text) {
+            Arrays.fill(row, (char) 0);
+        }
+        penRow = 0;
+        penColumn = 0;
+    }
+
+    /**
+     * Moves the pen, clamped to the window size.
+     *
+     * @param row the row of the pen
+     * @param column the column of the pen
+     */
+    public void setPenLocation(int row, int column) {
+        penRow = Math.min(row, rowCount - 1);
+        penColumn = Math.min(column, columnCount - 1);
+    }
+
+    /**
+     * Writes a character at the pen location and advances the pen, moving to the next row at the end of a row.
+     *
+     * @param c the character to write
+     */
+    public void write(char c) {
+        if (penColumn >= columnCount) {
+            carriageReturn();
+        }
+        text[penRow][penColumn++] = c;
+    }
+
+    /**
+     * Moves the pen back one column and erases the character there.
+     */
+    public void backspace() {
+        if (penColumn > 0) {
+            text[penRow][--penColumn] = 0;
+        }
+    }
+
+    /**
+     * Moves the pen to the beginning of the next row, scrolling the text up one row at the bottom of the window.
+     */
+    public void carriageReturn() {
+        penColumn = 0;
+        if (penRow + 1 < rowCount) {
+            penRow++;
+            return;
+        }
+        char[] top = text[0];
+        System.arraycopy(text, 1, text, 0, rowCount - 1);
+        Arrays.fill(top, (char) 0);
+        text[rowCount - 1] = top;
+    }
+
+    /**
+     * Erases the row of the pen and moves the pen to its beginning.
+     */
+    public void horizontalCarriageReturn() {
+        Arrays.fill(text[penRow], (char) 0);
+        penColumn = 0;
+    }
+
+    /**
+     * Appends the text of the window to the given builder, one line per non-empty row,
+     * with empty cells rendered as spaces and trailing spaces removed.
+     *
+     * @param sb the builder to append to
+     */
+    public void appendText(StringBuilder sb) {
+        for (int row = 0; row < rowCount; row++) {
+            int end = columnCount;
+            while (end > 0 && (text[row][end - 1] == 0 || text[row][end - 1] == ' ')) {
+                end--;
+            }
+            if (end == 0) {
+                continue;
+            }
+            for (int column = 0; column < end; column++) {
+                char c = text[row][column];
+                sb.append(c == 0 ? ' ' : c);
+            }
+            sb.append('\n');
+        }
+    }
+}
@@ -43,6 +43,8 @@ public enum CcType {
     /** Represents the start of a DTVCC packet with a value of 3. */
     DTVCC_PACKET_START(3);
 
+    private static final CcType[] VALUES = values();
+
     /** The integer value associated with the closed caption type. */
     private final int value;
 
@@ -54,4 +56,14 @@ public enum CcType {
     CcType(int value) {
         this.value = value;
     }
+
+    /**
+     * Returns the {@code CcType} corresponding to the given 2-bit value.
+     *
+     * @param value the integer value representing the closed caption type, from 0 to 3
+     * @return the corresponding {@code CcType}
+     */
+    public static CcType fromValue(int value) {
+        return VALUES[value];
+    }
 }
@@ -215,7 +215,7 @@ public class Eia608CharConstants {
     public static final String EIA608_CHAR_LATIN_SMALL_LETTER_O_WITH_TILDE = "\u00F5";
     public static final String EIA608_CHAR_LEFT_CURLY_BRACKET = "\u007B";
     public static final String EIA608_CHAR_RIGHT_CURLY_BRACKET = "\u007D";
-    public static final String EIA608_CHAR_REVERSE_SOLIDUS = "\\\\";
+    public static final String EIA608_CHAR_REVERSE_SOLIDUS = "\\";
     public static final String EIA608_CHAR_CIRCUMFLEX_ACCENT = "\u005E";
     public static final String EIA608_CHAR_LOW_LINE = "\u005F";
     public static final String EIA608_CHAR_VERTICAL_LINE = "\u007C";
@@ -23,6 +23,13 @@
  */
 package ph.extremelogic.libcaption.constant;
 
+/**
+ * The {@code Eia608CharMap} class holds the EIA-608 character set as dense tables indexed by the character
+ * index that {@code Eia608.eia608ToIndex} produces: the basic North American characters from index 0
+ * ({@code 0x20}), the special North American characters from index 96 and the extended Western European
+ * characters from index 112. Every character is in the Basic Multilingual Plane, so the {@code char} table
+ * also holds the code points.
+ */
 public class Eia608CharMap {
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -30,8 +37,11 @@ public class Eia608CharMap {
     private Eia608CharMap() {
         // Prevent instantiation
     }
+
+    /**
+     * The characters as strings, indexed by character index.
+     */
     public static final String[] EIA608_CHAR_MAP = new String[]{
-            Eia608CharConstants.EIA608_CHAR_NULL,
             Eia608CharConstants.EIA608_CHAR_SPACE,
             Eia608CharConstants.EIA608_CHAR_EXCLAMATION_MARK,
             Eia608CharConstants.EIA608_CHAR_QUOTATION_MARK,
@@ -39,7 +49,7 @@ public class Eia608CharMap {
             Eia608CharConstants.EIA608_CHAR_DOLLAR_SIGN,
             Eia608CharConstants.EIA608_CHAR_PERCENT_SIGN,
             Eia608CharConstants.EIA608_CHAR_AMPERSAND,
-            Eia608CharConstants.EIA608_CHAR_LEFT_SINGLE_QUOTATION_MARK,
+            Eia608CharConstants.EIA608_CHAR_RIGHT_SINGLE_QUOTATION_MARK,
             Eia608CharConstants.EIA608_CHAR_LEFT_PARENTHESIS,
             Eia608CharConstants.EIA608_CHAR_RIGHT_PARENTHESIS,
             Eia608CharConstants.EIA608_CHAR_LATIN_SMALL_LETTER_A_WITH_ACUTE,
@@ -150,7 +160,7 @@ public class Eia608CharMap {
             Eia608CharConstants.EIA608_CHAR_LATIN_CAPITAL_LETTER_U_WITH_ACUTE,
             Eia608CharConstants.EIA608_CHAR_LATIN_CAPITAL_LETTER_U_WITH_DIAERESIS,
             Eia608CharConstants.EIA608_CHAR_LATIN_SMALL_LETTER_U_WITH_DIAERESIS,
-            Eia608CharConstants.EIA608_CHAR_RIGHT_SINGLE_QUOTATION_MARK,
+            Eia608CharConstants.EIA608_CHAR_LEFT_SINGLE_QUOTATION_MARK,
             Eia608CharConstants.EIA608_CHAR_INVERTED_EXCLAMATION_MARK,
             Eia608CharConstants.EIA608_CHAR_ASTERISK,
             Eia608CharConstants.EIA608_CHAR_APOSTROPHE,
@@ -209,4 +219,23 @@ public class Eia608CharMap {
             Eia608CharConstants.EIA608_CHAR_BOX_DRAWINGS_LIGHT_UP_AND_RIGHT,
             Eia608CharConstants.EIA608_CHAR_BOX_DRAWINGS_LIGHT_UP_AND_LEFT,
     };
-}
\ No newline at end of file
+
+    /**
+     * The characters as {@code char} values, indexed by character index, for consumers that avoid allocating.
+     */
+    public static final char[] EIA608_CHARS = toChars(EIA608_CHAR_MAP);
+
+    /**
+     * Converts a table of single character strings to a table of characters.
+     *
+     * @param map the table of strings
+     * @return the table of characters
+     */
+    private static char[] toChars(String[] map) {
+        char[] chars = new char[map.length];
+        for (int i = 0; i < map.length; i++) {
+            chars[i] = map[i].charAt(0);
+        }
+        return chars;
+    }
+}
@@ -73,6 +73,8 @@ public enum ItuT35CountryCode {
     COUNTRY_GREECE(201),             // 0xC9
     COUNTRY_ISRAEL(39);              // 0x27
 
+    private static final ItuT35CountryCode[] VALUES = values();
+
     private final int value;
 
     /**
@@ -92,11 +94,26 @@ public enum ItuT35CountryCode {
      * @throws IllegalArgumentException if no matching value is found
      */
     public static ItuT35CountryCode fromValue(int value) {
-        for (ItuT35CountryCode countryCode : ItuT35CountryCode.values()) {
+        ItuT35CountryCode countryCode = find(value);
+        if (countryCode == null) {
+            throw new IllegalArgumentException("Invalid value: " + value);
+        }
+        return countryCode;
+    }
+
+    /**
+     * Looks up the {@code ItuT35CountryCode} constant corresponding to the given integer value without failing
+     * on values this enum does not define, which are legal in a stream.
+     *
+     * @param value the integer value of the country code
+     * @return the matching {@code ItuT35CountryCode} constant, or {@code null} if there is none
+     */
+    public static ItuT35CountryCode find(int value) {
+        for (ItuT35CountryCode countryCode : VALUES) {
             if (countryCode.getValue() == value) {
                 return countryCode;
             }
         }
-        throw new IllegalArgumentException("Invalid value: " + value);
+        return null;
     }
 }
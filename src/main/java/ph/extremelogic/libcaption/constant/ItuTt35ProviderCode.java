@@ -49,6 +49,8 @@ public enum ItuTt35ProviderCode {
     T_35_PROVIDER_INTEL(81);                // 0x51
 
 
+    private static final ItuTt35ProviderCode[] VALUES = values();
+
     private final int value;
 
     /**
@@ -68,11 +70,26 @@ public enum ItuTt35ProviderCode {
      * @throws IllegalArgumentException if no matching provider code is found
      */
     public static ItuTt35ProviderCode fromValue(int value) {
-        for (ItuTt35ProviderCode providerCode : ItuTt35ProviderCode.values()) {
+        ItuTt35ProviderCode providerCode = find(value);
+        if (providerCode == null) {
+            throw new IllegalArgumentException("Invalid value: " + value);
+        }
+        return providerCode;
+    }
+
+    /**
+     * Looks up the {@code ItuTt35ProviderCode} constant corresponding to the given integer value without failing
+     * on values this enum does not define, which are legal in a stream.
+     *
+     * @param value the integer value of the provider code
+     * @return the matching {@code ItuTt35ProviderCode} constant, or {@code null} if there is none
+     */
+    public static ItuTt35ProviderCode find(int value) {
+        for (ItuTt35ProviderCode providerCode : VALUES) {
             if (providerCode.getValue() == value) {
                 return providerCode;
             }
         }
-        throw new IllegalArgumentException("Invalid value: " + value);
+        return null;
     }
 }
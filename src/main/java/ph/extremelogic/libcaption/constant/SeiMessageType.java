@@ -102,6 +102,8 @@ public enum SeiMessageType {
     /** Unknown SEI message type with a value of -1. */
     UNKNOWN(-1);
 
+    private static final SeiMessageType[] VALUES = values();
+
     /** The integer value associated with the SEI message type. */
     private final int value;
 
@@ -122,7 +124,7 @@ public enum SeiMessageType {
      * @return the corresponding {@code SeiMessageType}, or {@code UNKNOWN} if the value is not recognized
      */
     public static SeiMessageType fromValue(int value) {
-        for (SeiMessageType type : values()) {
+        for (SeiMessageType type : VALUES) {
             if (type.value == value) {
                 return type;
             }
@@ -45,13 +45,31 @@ public enum Eia608Control {
     CONTROL_ROLL_UP_2(0x1425),
     CONTROL_ROLL_UP_3(0x1426),
     CONTROL_ROLL_UP_4(0x1427),
+    CONTROL_FLASH_ON(0x1428),
     CONTROL_RESUME_DIRECT_CAPTIONING(0x1429),
     CONTROL_TEXT_RESTART(0x142A),
     CONTROL_TEXT_RESUME_TEXT_DISPLAY(0x142B),
     CONTROL_ERASE_DISPLAY_MEMORY(0x142C),
     CONTROL_CARRIAGE_RETURN(0x142D),
     CONTROL_ERASE_NON_DISPLAYED_MEMORY(0x142E),
-    CONTROL_END_OF_CAPTION(0x142F);
+    CONTROL_END_OF_CAPTION(0x142F),
+
+    /** Sentinel for a control code that is not defined, returned instead of failing on corrupted or rare codes. */
+    UNKNOWN(-1);
+
+    /** First value covered by {@link #TABLE}. */
+    private static final int TABLE_BASE = 0x1400;
+
+    /** The control commands indexed by value minus {@link #TABLE_BASE}, {@code null} where undefined. */
+    private static final Eia608Control[] TABLE = new Eia608Control[0x0400];
+
+    static {
+        for (Eia608Control control : values()) {
+            if (control != UNKNOWN) {
+                TABLE[control.value - TABLE_BASE] = control;
+            }
+        }
+    }
 
     /** The integer value associated with the control command. */
     private final int value;
@@ -66,18 +84,17 @@ public enum Eia608Control {
     }
 
     /**
-     * Returns the {@code Eia608Control} enum corresponding to the given integer value.
+     * Returns the {@code Eia608Control} enum corresponding to the given integer value, in constant time.
      *
      * @param value the integer value of the control command
-     * @return the corresponding {@code Eia608Control} enum
-     * @throws IllegalArgumentException if the value does not match any known control command
+     * @return the corresponding {@code Eia608Control} enum, or {@link #UNKNOWN} if the value does not match
+     *         any known control command
      */
     public static Eia608Control fromInt(int value) {
-        for (Eia608Control control : Eia608Control.values()) {
-            if (control.getValue() == value) {
-                return control;
-            }
+        int index = value - TABLE_BASE;
+        if (index < 0 || index >= TABLE.length || TABLE[index] == null) {
+            return UNKNOWN;
         }
-        throw new IllegalArgumentException("Unknown value: " + value);
+        return TABLE[index];
     }
 }
@@ -41,6 +41,42 @@ public class Eia608Decoder {
      */
     public static final int[] EIA_608_PARITY_TABLE = ArrayUtil.concatenate(computeEIA608B1(0), computeEIA608B1(64));
 
+    /** Class of a byte pair failing the parity check. */
+    public static final int CLASS_PARITY_ERROR = 0;
+
+    /** Class of the padding byte pair. */
+    public static final int CLASS_PADDING = 1;
+
+    /** Class of a control code, see {@link #eia608IsControl(int)}. */
+    public static final int CLASS_CONTROL = 2;
+
+    /** Class of a special North American character, see {@link #eia608IsSpecialna(int)}. */
+    public static final int CLASS_SPECIAL_TEXT = 3;
+
+    /** Class of basic North American characters, see {@link #eia608IsBasicna(int)}. */
+    public static final int CLASS_BASIC_TEXT = 4;
+
+    /** Class of an extended Western European character, see {@link #eia608IsWestEU(int)}. */
+    public static final int CLASS_EXTENDED_TEXT = 5;
+
+    /** Class of a preamble address code, see {@link #eia608IsPreamble(int)}. */
+    public static final int CLASS_PREAMBLE = 6;
+
+    /** Class of a mid-row code, see {@link #eia608IsMidrowChange(int)}. */
+    public static final int CLASS_MIDROW = 7;
+
+    /** Class of an extended data services code, see {@link #eia608IsXDS(int)}. */
+    public static final int CLASS_XDS = 8;
+
+    /** Class of any other byte pair, which is ignored. */
+    public static final int CLASS_OTHER = 9;
+
+    /**
+     * A precomputed table of the class of every byte pair, parity bits included, indexed by the 16-bit word.
+     * It replaces the chain of predicates below with a single load when dispatching a byte pair.
+     */
+    private static final byte[] EIA_608_CLASS_TABLE = computeEIA608Classes();
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -167,7 +203,9 @@ public class Eia608Decoder {
      * @return {@code true} if the data is of basicna type, {@code false} otherwise
      */
     public static boolean eia608IsBasicna(int ccData) {
-        Debug.print("eia608_is_basicna " + ((0x6000 & ccData) != 0 ? 1 : 0));
+        if (Debug.enabled()) {
+            Debug.print("eia608_is_basicna " + ((0x6000 & ccData) != 0 ? 1 : 0));
+        }
         return (0x6000 & ccData) != 0;
     }
 
@@ -178,9 +216,11 @@ public class Eia608Decoder {
      * @return {@code true} if the data is a preamble, {@code false} otherwise
      */
     public static boolean eia608IsPreamble(int ccData) {
-        Debug.print("cc_data " + ccData);
-        Debug.print("0x7040 & cc_data " + (0x7040 & ccData));
-        Debug.print("eia608_is_preamble " + ((0x1040 == (0x7040 & ccData)) ? 1 : 0));
+        if (Debug.enabled()) {
+            Debug.print("cc_data " + ccData);
+            Debug.print("0x7040 & cc_data " + (0x7040 & ccData));
+            Debug.print("eia608_is_preamble " + ((0x1040 == (0x7040 & ccData)) ? 1 : 0));
+        }
         return (0x1040 == (0x7040 & ccData));
     }
 
@@ -201,7 +241,9 @@ public class Eia608Decoder {
      * @return {@code true} if the data is of specialna type, {@code false} otherwise
      */
     public static boolean eia608IsSpecialna(int ccData) {
-        Debug.print("eia608_is_specialna " + ((0x1130 == (0x7770 & ccData)) ? 1 : 0));
+        if (Debug.enabled()) {
+            Debug.print("eia608_is_specialna " + ((0x1130 == (0x7770 & ccData)) ? 1 : 0));
+        }
         return (0x1130 == (0x7770 & ccData));
     }
 
@@ -256,6 +298,51 @@ public class Eia608Decoder {
         return (0x8080 == ccData);
     }
 
+    /**
+     * Classifies a byte pair by looking it up in {@link #EIA_608_CLASS_TABLE}.
+     *
+     * @param ccData the closed caption data, parity bits included
+     * @return one of the {@code CLASS_} constants
+     */
+    public static int eia608Classify(int ccData) {
+        return EIA_608_CLASS_TABLE[ccData & 0xFFFF];
+    }
+
+    /**
+     * Computes the class of every 16-bit word, checking the predicates in the order a decoder must apply them.
+     *
+     * @return the class table, indexed by the 16-bit word
+     */
+    private static byte[] computeEIA608Classes() {
+        byte[] classes = new byte[0x10000];
+        for (int ccData = 0; ccData < classes.length; ccData++) {
+            int cls;
+            if (!eia608ParityVerify(ccData)) {
+                cls = CLASS_PARITY_ERROR;
+            } else if (eia608IsPadding(ccData)) {
+                cls = CLASS_PADDING;
+            } else if (eia608IsControl(ccData)) {
+                cls = CLASS_CONTROL;
+            } else if (eia608IsSpecialna(ccData)) {
+                cls = CLASS_SPECIAL_TEXT;
+            } else if (eia608IsBasicna(ccData)) {
+                cls = CLASS_BASIC_TEXT;
+            } else if (eia608IsWestEU(ccData)) {
+                cls = CLASS_EXTENDED_TEXT;
+            } else if (eia608IsPreamble(ccData)) {
+                cls = CLASS_PREAMBLE;
+            } else if (eia608IsMidrowChange(ccData)) {
+                cls = CLASS_MIDROW;
+            } else if (eia608IsXDS(ccData)) {
+                cls = CLASS_XDS;
+            } else {
+                cls = CLASS_OTHER;
+            }
+            classes[ccData] = (byte) cls;
+        }
+        return classes;
+    }
+
     /**
      * Returns the appropriate tab offset control based on the given offset value.
      *
@@ -40,6 +40,8 @@ public enum Eia608Style {
     MAGENTA(6),
     ITALICS(7);
 
+    private static final Eia608Style[] VALUES = values();
+
     /** The integer value associated with each style. */
     private final int value;
 
@@ -51,4 +53,14 @@ public enum Eia608Style {
     Eia608Style(int value) {
         this.value = value;
     }
+
+    /**
+     * Returns the {@code Eia608Style} corresponding to the given 3-bit value.
+     *
+     * @param value the integer value representing the style, from 0 to 7
+     * @return the corresponding {@code Eia608Style}
+     */
+    public static Eia608Style fromValue(int value) {
+        return VALUES[value];
+    }
 }
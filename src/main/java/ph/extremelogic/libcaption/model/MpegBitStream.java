@@ -25,8 +25,13 @@ package ph.extremelogic.libcaption.model;
 
 import lombok.Getter;
 import lombok.Setter;
+import ph.extremelogic.libcaption.caption.CaptionChannels;
 import ph.extremelogic.libcaption.cea708.Cea708Data;
+import ph.extremelogic.libcaption.cea708.Dtvcc;
 import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+import ph.extremelogic.texttrack.utils.Debug;
+
+import java.util.Arrays;
 
 import static ph.extremelogic.libcaption.Mpeg.MAX_NALU_SIZE;
 import static ph.extremelogic.libcaption.Mpeg.MAX_REFERENCE_FRAMES;
@@ -34,20 +39,72 @@ import static ph.extremelogic.libcaption.Mpeg.MAX_REFERENCE_FRAMES;
 /**
  * Represents an MPEG bitstream containing caption data, frame management, and status.
  * This class manages the storage and retrieval of compressed caption data within the context of MPEG streams.
+ * <p>
+ * Pending NALU bytes live in {@link #naluData} between a read cursor ({@link #start}) and a write cursor
+ * ({@code start + size}). Consuming a NAL unit only advances the read cursor; the pending bytes are moved
+ * back to the beginning of the buffer only when an append would run past its end.
+ * <p>
+ * Only SEI NAL units are ever buffered. While {@link #isSkipping() skipping}, the bitstream is outside of
+ * any SEI NAL unit and incoming bytes are merely scanned for the next start code, tracking the zero bytes
+ * that may begin a start code split across two payloads in {@link #zeroRun}.
+ * <p>
+ * Both the NALU buffer and the CEA-708 reorder window start small and grow on demand, up to
+ * {@code MAX_NALU_SIZE} bytes and {@code MAX_REFERENCE_FRAMES} entries, so an idle or simple stream keeps
+ * a small footprint. The deepest reordering seen so far is available through {@link #getMaxLatent()}.
  */
 public class MpegBitStream {
+    /** Initial size of the NALU buffer, enough for the SEI NAL units of most streams. */
+    private static final int INITIAL_NALU_SIZE = 4 * 1024;
+
+    /** Initial capacity of the reorder window, enough for streams with up to two consecutive B-frames. */
+    private static final int INITIAL_REFERENCE_FRAMES = 4;
+
     /**
-     * Size of the data stored in this bitstream.
+     * Size of the data stored in this bitstream, counted from {@link #start}.
      */
     @Getter
     @Setter
     private int size;
 
+    /**
+     * Offset of the first pending byte in {@link #naluData}.
+     */
+    @Getter
+    private int start;
+
+    /**
+     * Offset in {@link #naluData} from which the next start code search resumes.
+     * Every earlier position has already been checked and holds no start code.
+     */
+    @Getter
+    @Setter
+    private int scanOffset;
+
+    /**
+     * Whether the current NAL unit is not an SEI NAL unit and its bytes are discarded instead of buffered.
+     */
+    @Getter
+    private boolean skipping;
+
+    /**
+     * While skipping, the number of zero bytes (at most 2) ending the bytes scanned so far,
+     * or {@code -1} if they ended with a complete start code and the NAL unit header is expected next.
+     */
+    @Getter
+    @Setter
+    private int zeroRun;
+
     /**
      * Buffer to hold NALU (Network Abstraction Layer Unit) data.
      */
     @Getter
-    private byte[] naluData = new byte[MAX_NALU_SIZE + 1];
+    private byte[] naluData;
+
+    /**
+     * The SEI messages of the last SEI NAL unit parsed, reused for every SEI NAL unit.
+     */
+    @Getter
+    private final Sei sei = new Sei(0);
 
     /**
      * The current status of the caption data being processed.
@@ -71,12 +128,43 @@ public class MpegBitStream {
     private int latent;
 
     /**
-     * Array of Cea708Data objects representing the decoded caption data.
+     * The largest number of latent frames observed, i.e. the reordering depth of the stream.
+     */
+    @Getter
+    private int maxLatent;
+
+    /**
+     * The number of ITU-T T.35 payloads skipped because they carry no closed caption data,
+     * such as AFD and bar data.
+     */
+    @Getter
+    private long skippedPayloadCount;
+
+    /**
+     * Array of Cea708Data objects representing the decoded caption data, used as a ring buffer
+     * whose capacity is the length of the array.
      */
     @Getter
     @Setter
     private Cea708Data[] cea708Data;
 
+    /**
+     * The optional decoder of the CEA-608 channels CC1 to CC4. When set, it replaces the caption frame
+     * passed to the parser, which then only decodes CC1, and the status turns {@code READY} whenever
+     * the frame of any channel is ready to display.
+     */
+    @Getter
+    @Setter
+    private CaptionChannels captionChannels;
+
+    /**
+     * The optional CEA-708 decoder fed with the DTVCC data of every frame, in presentation order,
+     * alongside the CEA-608 caption frame. DTVCC data is discarded when {@code null}.
+     */
+    @Getter
+    @Setter
+    private Dtvcc dtvcc;
+
     /**
      * Constructs a new {@code MpegBitStream} and initializes it.
      */
@@ -88,17 +176,97 @@ public class MpegBitStream {
      * Initializes the bitstream fields to their default states.
      */
     private void init() {
-        this.naluData = new byte[MAX_NALU_SIZE + 1];
+        this.naluData = new byte[INITIAL_NALU_SIZE];
         this.size = 0;
+        this.start = 0;
+        this.scanOffset = 0;
+        this.skipping = true;
+        this.zeroRun = 0;
         this.status = LibCaptionStatus.OK;
         this.front = 0;
         this.latent = 0;
-        this.cea708Data = new Cea708Data[MAX_REFERENCE_FRAMES];
-        for (int i = 0; i < MAX_REFERENCE_FRAMES; i++) {
+        this.maxLatent = 0;
+        this.skippedPayloadCount = 0;
+        this.cea708Data = new Cea708Data[INITIAL_REFERENCE_FRAMES];
+        for (int i = 0; i < INITIAL_REFERENCE_FRAMES; i++) {
             cea708Data[i] = new Cea708Data();
         }
     }
 
+    /**
+     * Makes room for appending the given number of bytes after the pending data, moving the pending
+     * bytes to the beginning of the buffer if the append would otherwise run past its end, and growing
+     * the buffer if that is not enough. The caller ensures the pending data never exceeds {@code MAX_NALU_SIZE}.
+     *
+     * @param bytes the number of bytes about to be appended
+     * @return the offset in {@link #getNaluData()} at which the bytes must be written
+     */
+    public int reserve(int bytes) {
+        if (start + size + bytes > naluData.length) {
+            if (size + bytes > naluData.length) {
+                int length = Math.min(Math.max(size + bytes, naluData.length * 2), MAX_NALU_SIZE + 1);
+                byte[] grown = new byte[length];
+                System.arraycopy(naluData, start, grown, 0, size);
+                naluData = grown;
+            } else {
+                System.arraycopy(naluData, start, naluData, 0, size);
+            }
+            scanOffset -= start;
+            start = 0;
+        }
+        return start + size;
+    }
+
+    /**
+     * Consumes the given number of pending bytes by advancing the read cursor.
+     *
+     * @param bytes the number of bytes to consume
+     */
+    public void consume(int bytes) {
+        size -= bytes;
+        start = size == 0 ? 0 : start + bytes;
+        scanOffset = start;
+    }
+
+    /**
+     * Stops skipping and starts buffering a new NAL unit with the given header,
+     * storing it behind a three byte start code at the beginning of the buffer.
+     *
+     * @param header the NAL unit header byte
+     */
+    public void beginNalu(byte header) {
+        naluData[0] = 0;
+        naluData[1] = 0;
+        naluData[2] = 1;
+        naluData[3] = header;
+        start = 0;
+        size = 4;
+        scanOffset = 0;
+        zeroRun = 0;
+        skipping = false;
+    }
+
+    /**
+     * Discards the pending NAL unit and starts skipping. The pending bytes must begin with a start code
+     * and the NAL unit header; the zero bytes at their end are carried over to {@link #zeroRun}.
+     */
+    public void skipPendingNalu() {
+        int end = start + size;
+        int run = 0;
+        if (size >= 6 && naluData[end - 3] == 0 && naluData[end - 2] == 0 && naluData[end - 1] == 1) {
+            run = -1;
+        } else {
+            while (run < 2 && end - run > start + 3 && naluData[end - run - 1] == 0) {
+                run++;
+            }
+        }
+        zeroRun = run;
+        start = 0;
+        size = 0;
+        scanOffset = 0;
+        skipping = true;
+    }
+
     /**
      * Retrieves the CEA708 data at the specified position adjusted by the front index.
      * This method handles the circular queue nature of frame references.
@@ -107,14 +275,48 @@ public class MpegBitStream {
      * @return the CEA708 data at the adjusted position
      */
     public Cea708Data getCEA708At(int pos) {
-        return cea708Data[(front + pos) % MAX_REFERENCE_FRAMES];
+        return cea708Data[(front + pos) % cea708Data.length];
     }
 
     /**
-     * Increments the latency index to track delayed processing.
+     * Increments the latency index to track delayed processing. A full reorder window is doubled, up to
+     * {@code MAX_REFERENCE_FRAMES} entries; past that, the oldest entry is dropped to make room.
      */
     public void incrementLatent() {
+        if (latent == cea708Data.length) {
+            if (cea708Data.length < MAX_REFERENCE_FRAMES) {
+                growReorderWindow();
+            } else {
+                Debug.print("Reorder window full, dropping the oldest frame");
+                front = (front + 1) % cea708Data.length;
+                latent--;
+            }
+        }
         latent++;
+        maxLatent = Math.max(maxLatent, latent);
+    }
+
+    /**
+     * Doubles the capacity of the reorder window, moving the latent entries to the beginning of the new ring.
+     */
+    private void growReorderWindow() {
+        int capacity = cea708Data.length;
+        Cea708Data[] grown = Arrays.copyOf(cea708Data, Math.min(capacity * 2, MAX_REFERENCE_FRAMES));
+        for (int i = 0; i < capacity; i++) {
+            grown[i] = cea708Data[(front + i) % capacity];
+        }
+        for (int i = capacity; i < grown.length; i++) {
+            grown[i] = new Cea708Data();
+        }
+        cea708Data = grown;
+        front = 0;
+    }
+
+    /**
+     * Counts an ITU-T T.35 payload skipped because it carries no closed caption data.
+     */
+    public void incrementSkippedPayloadCount() {
+        skippedPayloadCount++;
     }
 
     /**
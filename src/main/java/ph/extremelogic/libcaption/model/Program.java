@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016-2017 Twitch Interactive, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ph.extremelogic.libcaption.model;
+
+import lombok.Data;
+
+/**
+ * The {@code Program} class represents a single program (service) announced in the Program Association Table
+ * of an MPEG transport stream, together with the video elementary stream that carries its captions.
+ * A multi-program transport stream (MPTS) holds one {@code Program} per service.
+ */
+@Data
+public class Program {
+    /** The sequential index of the program, in the order the programs were discovered. */
+    private final int index;
+
+    /** The program number announced in the Program Association Table. */
+    private final int programNumber;
+
+    /** The Program Map Table PID of the program. */
+    private int pmtPid;
+
+    /** The video elementary stream PID carrying the closed captions, or {@code 0} if not yet known. */
+    private int videoPid;
+
+    /** The stream type of the video elementary stream (e.g., H.264, H.265). */
+    private int streamType;
+
+    /** The last Presentation Timestamp (PTS) of the video elementary stream in MPEG timestamp format. */
+    private long pts;
+
+    /** The last Decode Timestamp (DTS) of the video elementary stream in MPEG timestamp format. */
+    private long dts;
+
+    /**
+     * Constructs a {@code Program} with the given index, program number and Program Map Table PID.
+     *
+     * @param index the sequential index of the program
+     * @param programNumber the program number announced in the Program Association Table
+     * @param pmtPid the Program Map Table PID of the program
+     */
+    public Program(int index, int programNumber, int pmtPid) {
+        this.index = index;
+        this.programNumber = programNumber;
+        this.pmtPid = pmtPid;
+    }
+}
@@ -23,9 +23,15 @@
  */
 package ph.extremelogic.libcaption.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -34,6 +40,9 @@ import java.util.List;
  * information to video decoders.
  *
  * This class provides methods to initialize and manage the SEI message list.
+ * <p>
+ * A {@code Sei} is meant to be reused: message objects and the buffer holding unescaped payloads are kept
+ * across {@link #init(double)} calls, so parsing SEI messages into it allocates nothing once warmed up.
  */
 @Data
 public class Sei {
@@ -43,6 +52,25 @@ public class Sei {
     /** The timestamp associated with the SEI messages. */
     private double timestamp;
 
+    /** Every message object created so far, recycled by {@link #addMessage()}. */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final List<SeiMessage> pool = new ArrayList<>();
+
+    /** Buffer holding the payloads of the messages that had to be copied to remove emulation prevention bytes. */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private byte[] rbsp = new byte[0];
+
+    /** The number of bytes of {@link #rbsp} used by the current messages. */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int rbspSize;
+
     /**
      * Constructs a {@code Sei} object with the specified timestamp and initializes the message list.
      *
@@ -61,6 +89,40 @@ public class Sei {
     public void init(double timestamp) {
         this.timestamp = timestamp;
         this.messages.clear();
+        this.rbspSize = 0;
+    }
+
+    /**
+     * Appends a message to the message list, recycling a message object from a previous use when possible.
+     *
+     * @return the appended message, whose fields must all be set by the caller
+     */
+    public SeiMessage addMessage() {
+        SeiMessage msg;
+        if (messages.size() < pool.size()) {
+            msg = pool.get(messages.size());
+        } else {
+            msg = new SeiMessage();
+            pool.add(msg);
+        }
+        messages.add(msg);
+        return msg;
+    }
+
+    /**
+     * Reserves room in the {@link #getRbsp() payload buffer} for a payload of the given size. The buffer may be
+     * replaced by a larger one, so it must be fetched after the call; earlier payloads stay valid in the old one.
+     *
+     * @param size the size of the payload
+     * @return the offset of the reserved bytes in the payload buffer
+     */
+    public int reserveRbsp(int size) {
+        if (rbspSize + size > rbsp.length) {
+            rbsp = Arrays.copyOf(rbsp, Math.max(rbspSize + size, rbsp.length * 2));
+        }
+        int offset = rbspSize;
+        rbspSize += size;
+        return offset;
     }
 
     /**
@@ -33,6 +33,10 @@ import ph.extremelogic.libcaption.constant.SeiMessageType;
  *
  * This class provides a constructor for initializing a message with a specific type and payload, and it also supports
  * a default no-argument constructor.
+ * <p>
+ * The payload is a view of {@link #size} bytes starting at {@link #offset} of the {@link #payload} array. Messages
+ * produced by {@link ph.extremelogic.libcaption.Mpeg#seiParse(Sei, byte[], int, int, double)} share that array with
+ * the NAL unit they were read from, so they are only valid until the NAL unit buffer is reused.
  */
 @Data
 @NoArgsConstructor
@@ -43,9 +47,12 @@ public class SeiMessage {
     /** The type of SEI message, represented by a {@code SeiMessageType} enum. */
     private SeiMessageType type;
 
-    /** The payload data of the SEI message, stored as a byte array. */
+    /** The array holding the payload data of the SEI message. */
     private byte[] payload;
 
+    /** The offset of the first payload byte in {@link #payload}. */
+    private int offset;
+
     /** A reference to the next SEI message, enabling the creation of a linked list of SEI messages. */
     private SeiMessage next;
 
@@ -59,13 +59,14 @@ public class UserData {
     private int emData; // 8 bits
 
     /**
-     * Array of {@code CcData} objects representing the closed caption data (up to 32 units).
+     * The closed caption data units (up to 32), each packed into an {@code int} as the raw 24-bit
+     * {@code cc_data} triplet: 5 marker bits, the valid bit and the 2-bit type in bits 16 to 23,
+     * followed by the 16-bit caption data. Use the indexed accessors to read them without allocating.
      */
-    private CcData[] ccData = new CcData[32]; // Array of caption data
+    private int[] ccTriplets = new int[32];
 
     /**
-     * Constructs a {@code UserData} object with the specified parameters,
-     * initializing the {@code ccData} array with default {@code CcData} instances.
+     * Constructs a {@code UserData} object with the specified parameters.
      *
      * @param processEmDataFlag flag indicating whether to process embedded data
      * @param processCcDataFlag flag indicating whether to process closed caption data
@@ -79,9 +80,56 @@ public class UserData {
         this.additionalDataFlag = additionalDataFlag;
         this.ccCount = ccCount;
         this.emData = emData;
-        // Initialize the ccData array
-        for (int i = 0; i < 32; i++) {
-            ccData[i] = new CcData(0, false, CcType.NTSC_CC_FIELD_1, 0);
-        }
+    }
+
+    /**
+     * Stores a closed caption data unit from the three bytes it is made of.
+     *
+     * @param index the index of the data unit
+     * @param data the array holding the triplet
+     * @param offset the offset of the triplet in the array
+     */
+    public void setCcTriplet(int index, byte[] data, int offset) {
+        ccTriplets[index] = ((data[offset] & 0xFF) << 16) | ((data[offset + 1] & 0xFF) << 8) | (data[offset + 2] & 0xFF);
+    }
+
+    /**
+     * Returns the marker bits of a closed caption data unit.
+     *
+     * @param index the index of the data unit
+     * @return the 5 marker bits
+     */
+    public int getMarkerBits(int index) {
+        return (ccTriplets[index] >>> 19) & 0x1F;
+    }
+
+    /**
+     * Returns whether a closed caption data unit is valid.
+     *
+     * @param index the index of the data unit
+     * @return the value of the {@code cc_valid} bit
+     */
+    public boolean isCcValid(int index) {
+        return (ccTriplets[index] & 0x040000) != 0;
+    }
+
+    /**
+     * Returns the type of a closed caption data unit.
+     *
+     * @param index the index of the data unit
+     * @return the {@code cc_type}
+     */
+    public CcType getCcType(int index) {
+        return CcType.fromValue((ccTriplets[index] >>> 16) & 0x03);
+    }
+
+    /**
+     * Returns the caption data of a closed caption data unit.
+     *
+     * @param index the index of the data unit
+     * @return the 16-bit caption data
+     */
+    public int getCcData(int index) {
+        return ccTriplets[index] & 0xFFFF;
     }
 }
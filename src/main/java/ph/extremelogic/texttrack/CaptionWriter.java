@@ -0,0 +1,150 @@
+package ph.extremelogic.texttrack;
+
+import ph.extremelogic.libcaption.caption.CaptionFrame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static ph.extremelogic.libcaption.Utf8.utf8Encode;
+import static ph.extremelogic.libcaption.Utf8.utf8EncodedLength;
+import static ph.extremelogic.libcaption.caption.CaptionFrame.CAPTION_FRAME_DUMP_BUF_SIZE;
+import static ph.extremelogic.libcaption.caption.CaptionFrame.CAPTION_FRAME_TEXT_BYTES;
+
+/**
+ * Writes caption output in UTF-8 to a byte channel through a single reusable buffer.
+ * <p>
+ * Caption frames are encoded straight from their cached rows into the buffer, so printing a caption
+ * does not build a string for the frame, the header lines or the encoded bytes.
+ * Nothing reaches the channel before {@link #flush()} is called or the buffer fills up.
+ * </p>
+ */
+public class CaptionWriter {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CAPTION_FRAME_DUMP_BUF_SIZE);
+    private final String lineSeparator = System.lineSeparator();
+
+    /**
+     * Constructs a writer for a byte channel. The channel is not closed by the writer.
+     *
+     * @param channel the channel receiving the output
+     */
+    public CaptionWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes characters.
+     *
+     * @param text the characters to write
+     * @return this writer
+     * @throws TextTrackException if the channel fails
+     */
+    public CaptionWriter print(CharSequence text) {
+        int length = utf8EncodedLength(text);
+        if (length > buffer.capacity()) {
+            // Too long for the buffer, write it in chunks instead
+            int codePoint = 0;
+            for (int i = 0; i < text.length(); i += Character.charCount(codePoint)) {
+                codePoint = Character.codePointAt(text, i);
+                reserve(4);
+                utf8Encode(codePoint, buffer);
+            }
+            return this;
+        }
+        reserve(length);
+        utf8Encode(text, buffer);
+        return this;
+    }
+
+    /**
+     * Writes the decimal digits of a number.
+     *
+     * @param value the number to write
+     * @return this writer
+     * @throws TextTrackException if the channel fails
+     */
+    public CaptionWriter print(long value) {
+        reserve(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+        } else {
+            value = -value;
+        }
+        // Digits are produced from negative values so that Long.MIN_VALUE needs no special case
+        long divisor = -1;
+        while (divisor > Long.MIN_VALUE / 10 && value <= divisor * 10) {
+            divisor *= 10;
+        }
+        while (divisor != 0) {
+            buffer.put((byte) ('0' + value / divisor));
+            value %= divisor;
+            divisor /= 10;
+        }
+        return this;
+    }
+
+    /**
+     * Writes the text of a caption frame, in the same form as {@link CaptionFrame#toText()}.
+     *
+     * @param frame the caption frame to write
+     * @return this writer
+     * @throws TextTrackException if the channel fails
+     */
+    public CaptionWriter print(CaptionFrame frame) {
+        // Reserving the largest possible text spares measuring the frame before writing it
+        reserve(CAPTION_FRAME_TEXT_BYTES);
+        frame.writeText(buffer);
+        return this;
+    }
+
+    /**
+     * Terminates the current line.
+     *
+     * @return this writer
+     * @throws TextTrackException if the channel fails
+     */
+    public CaptionWriter println() {
+        return print(lineSeparator);
+    }
+
+    /**
+     * Writes characters and terminates the line.
+     *
+     * @param text the characters to write
+     * @return this writer
+     * @throws TextTrackException if the channel fails
+     */
+    public CaptionWriter println(CharSequence text) {
+        return print(text).println();
+    }
+
+    /**
+     * Writes the buffered output to the channel.
+     *
+     * @throws TextTrackException if the channel fails
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new TextTrackException("Failed to write captions", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Makes room in the buffer, writing its content to the channel if fewer than the given bytes remain.
+     *
+     * @param length the number of bytes about to be written, at most the buffer capacity
+     */
+    private void reserve(int length) {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+}
@@ -23,20 +23,27 @@
  */
 package ph.extremelogic.texttrack;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import ph.extremelogic.libcaption.TransportSystem;
+import ph.extremelogic.libcaption.caption.CaptionChannels;
 import ph.extremelogic.libcaption.caption.CaptionFrame;
+import ph.extremelogic.libcaption.cea708.Dtvcc;
+import ph.extremelogic.libcaption.cea708.DtvccService;
 import ph.extremelogic.libcaption.constant.LibCaptionStatus;
 import ph.extremelogic.libcaption.model.MpegBitStream;
+import ph.extremelogic.libcaption.model.Program;
 import ph.extremelogic.texttrack.utils.Debug;
 
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
-import static ph.extremelogic.libcaption.Mpeg.STREAM_TYPE_H264;
 import static ph.extremelogic.libcaption.Mpeg.mpegBitStreamParse;
 import static ph.extremelogic.libcaption.TransportSystem.TS_PACKET_SIZE;
 
@@ -47,20 +54,64 @@ public class TextTrack {
     private static final int EXIT_FAILURE = 1;
     public static final boolean debug = false;
 
+    /** Command line option that selects the memory-mapped input mode. */
+    private static final String MMAP_OPTION = "--mmap";
+
+    /** Command line option that enables decoding of the CEA-708 services next to the CEA-608 captions. */
+    private static final String DTVCC_OPTION = "--dtvcc";
+
+    /** Command line option that decodes the four CEA-608 channels CC1 to CC4 instead of CC1 only. */
+    private static final String CHANNELS_OPTION = "--channels";
+
+    /** Names of the CEA-608 channels, indexed by channel. */
+    private static final String[] CHANNEL_NAMES = {"CC1", "CC2", "CC3", "CC4"};
+
+    /** Size of each read block, kept a multiple of {@link TransportSystem#TS_PACKET_SIZE} (about 2 MB). */
+    private static final int READ_BUFFER_SIZE = TS_PACKET_SIZE * 11 * 1024;
+
+    /** Size of each mapped window, kept a multiple of {@link TransportSystem#TS_PACKET_SIZE}. */
+    private static final int MAPPED_WINDOW_SIZE = TS_PACKET_SIZE * 256 * 1024;
+
+    /** Writes the captions to the standard output channel in UTF-8. */
+    private static final CaptionWriter OUT = new CaptionWriter(new FileOutputStream(FileDescriptor.out).getChannel());
+
     /**
      * Main entry point for the TextTrack application.
-     * @param args Command line arguments, expects the first argument to be the path to the transport stream file.
+     * @param args Command line arguments, expects the last argument to be the path to the transport stream file,
+     *             optionally preceded by {@code --mmap} to read the file through memory-mapped windows
+     *             {@code --dtvcc} to also print the captions of the CEA-708 services
+     *             and {@code --channels} to print the captions of all four CEA-608 channels.
      */
     public static void main(String[] args) {
         long startTime = System.nanoTime();
         if (args.length < 1) {
-            System.err.println("Usage: java TextTrack <path_to_transport_stream_file>");
+            System.err.println("Usage: java TextTrack [" + MMAP_OPTION + "] [" + DTVCC_OPTION + "] [" + CHANNELS_OPTION + "] <path_to_transport_stream_file>");
             System.exit(EXIT_FAILURE);
         }
-        String tsFilePath = args[0];
+        String tsFilePath = args[args.length - 1];
+        boolean mapped = false;
+        boolean dtvcc = false;
+        boolean channels = false;
+        for (int i = 0; i < args.length - 1; i++) {
+            if (MMAP_OPTION.equals(args[i])) {
+                mapped = true;
+            } else if (DTVCC_OPTION.equals(args[i])) {
+                dtvcc = true;
+            } else if (CHANNELS_OPTION.equals(args[i])) {
+                channels = true;
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(EXIT_FAILURE);
+            }
+        }
 
+        DecoderOptions options = new DecoderOptions(dtvcc, channels);
         try (FileChannel fileChannel = FileChannel.open(Path.of(tsFilePath), StandardOpenOption.READ)) {
-            processTransportStream(fileChannel);
+            if (mapped) {
+                processMappedTransportStream(fileChannel, options);
+            } else {
+                processTransportStream(fileChannel, options);
+            }
         } catch (IOException e) {
             System.err.println("Failed to open input file: " + tsFilePath);
             System.exit(EXIT_FAILURE);
@@ -71,65 +122,110 @@ public class TextTrack {
 
     /**
      * Processes the transport stream file to extract and process packets.
+     * The file is read in blocks of {@link #READ_BUFFER_SIZE} bytes which are parsed in bulk.
      * @param fileChannel The file channel associated with the transport stream file.
+     * @param options The captions to decode.
      * @throws IOException If there is an issue reading the file.
      */
-    private static void processTransportStream(FileChannel fileChannel) throws IOException {
+    private static void processTransportStream(FileChannel fileChannel, DecoderOptions options) throws IOException {
+        TransportSystem ts = new TransportSystem();
+        List<ProgramDecoder> decoders = new ArrayList<>();
+        TransportSystem.PacketListener listener = status -> handlePacketStatus(ts, decoders, status, options);
+        ByteBuffer block = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        while (fileChannel.read(block) > 0) {
+            block.flip();
+            ts.parsePackets(block, listener);
+            block.compact();
+        }
+    }
+
+    /**
+     * Processes the transport stream file by mapping it into memory in large windows and parsing
+     * the packets in place, avoiding a read system call per packet.
+     * A trailing partial packet at the end of the file is ignored, as in {@link #processTransportStream}.
+     * @param fileChannel The file channel associated with the transport stream file.
+     * @param options The captions to decode.
+     * @throws IOException If there is an issue mapping the file.
+     */
+    private static void processMappedTransportStream(FileChannel fileChannel, DecoderOptions options) throws IOException {
         TransportSystem ts = new TransportSystem();
-        MpegBitStream mpegbs = new MpegBitStream();
-        CaptionFrame frame = new CaptionFrame();
-        ByteBuffer pkt = ByteBuffer.allocateDirect(TS_PACKET_SIZE);
+        List<ProgramDecoder> decoders = new ArrayList<>();
+        TransportSystem.PacketListener listener = status -> handlePacketStatus(ts, decoders, status, options);
 
-        int index = 0;
-        while (fileChannel.read(pkt) == TS_PACKET_SIZE) {
-            pkt.flip();
-            Debug.print("DEBUG index: " + index++);
+        long fileSize = fileChannel.size();
+        long usableSize = fileSize - (fileSize % TS_PACKET_SIZE);
 
-            if (ts.parsePacket(pkt) == LibCaptionStatus.READY.ordinal()) {
-                processPacket(ts, mpegbs, frame);
-            } else {
-                Debug.print("Not yet ready");
-            }
+        for (long offset = 0; offset < usableSize; offset += MAPPED_WINDOW_SIZE) {
+            int windowSize = (int) Math.min(MAPPED_WINDOW_SIZE, usableSize - offset);
+            MappedByteBuffer window = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, windowSize);
+            ts.parsePackets(window, listener);
+        }
+    }
 
-            pkt.clear();
+    /**
+     * Forwards the payload of a parsed packet to the MPEG bitstream parser of its program once it is ready.
+     * @param ts The transport system handling the stream packets.
+     * @param decoders The decoders of the programs seen so far, indexed by {@link Program#getIndex()}.
+     * @param status The status of the parsed packet, represented by the ordinal value of {@code LibCaptionStatus}.
+     * @param options The captions new decoders decode.
+     */
+    private static void handlePacketStatus(TransportSystem ts, List<ProgramDecoder> decoders, int status, DecoderOptions options) {
+        if (status == LibCaptionStatus.READY.ordinal()) {
+            Program program = ts.getProgram();
+            while (decoders.size() <= program.getIndex()) {
+                decoders.add(new ProgramDecoder(ts, options));
+            }
+            processPacket(ts, decoders.get(program.getIndex()));
+        } else {
+            Debug.print("Not yet ready");
         }
     }
 
     /**
      * Processes each packet extracted from the transport stream.
      * @param ts The transport system handling the stream packets.
-     * @param mpegbs The MPEG bit stream to parse.
-     * @param frame The caption frame to update.
+     * @param decoder The decoder of the program the packet belongs to.
      */
-    private static void processPacket(TransportSystem ts, MpegBitStream mpegbs, CaptionFrame frame) {
+    private static void processPacket(TransportSystem ts, ProgramDecoder decoder) {
         double dts = ts.dtsSeconds();
         double cts = ts.ctsSeconds();
+        int streamType = ts.getProgram().getStreamType();
 
         Debug.print("DEBUG DTS: " + String.format("%.6f", dts) + ", CTS: " + String.format("%.6f", cts));
         Debug.print("DEBUG ts.size: " + ts.getSize());
 
         while (ts.getSize() > 0) {
-            int bytesRead = mpegBitStreamParse(mpegbs, frame, ts.getData(), ts.getSize(), STREAM_TYPE_H264, dts, cts);
-            ts.setData(Arrays.copyOfRange(ts.getData(), bytesRead, ts.getData().length));
+            int bytesRead = mpegBitStreamParse(decoder.mpegbs, decoder.frame, ts.getPayload(), ts.getOffset(), ts.getSize(), streamType, dts, cts);
+            ts.setOffset(ts.getOffset() + bytesRead);
             ts.setSize(ts.getSize() - bytesRead);
 
-            handleMpegBitStreamStatus(mpegbs, frame);
+            handleMpegBitStreamStatus(ts, decoder);
         }
     }
 
     /**
      * Handles the status of the MPEG bitstream after processing a packet.
-     * @param mpegbs The MPEG bitstream.
-     * @param frame The caption frame to display if ready.
+     * Captions are tagged with their program number when the stream carries more than one program.
+     * @param ts The transport system handling the stream packets.
+     * @param decoder The decoder holding the MPEG bitstream and the caption frame to display if ready.
      */
-    private static void handleMpegBitStreamStatus(MpegBitStream mpegbs, CaptionFrame frame) {
-        switch (mpegbs.getStatus()) {
+    private static void handleMpegBitStreamStatus(TransportSystem ts, ProgramDecoder decoder) {
+        switch (decoder.mpegbs.getStatus()) {
             case OK:
                 break;
             case READY:
-                System.out.println("-------------------------------");
-                String captionData = frame.toText();
-                System.out.println("data:\n" + captionData);
+                CaptionChannels channels = decoder.mpegbs.getCaptionChannels();
+                if (channels == null) {
+                    printFrame(ts, null, decoder.frame);
+                    break;
+                }
+                for (int channel = 0; channel < CaptionChannels.CHANNEL_COUNT; channel++) {
+                    if (channels.isReady(channel)) {
+                        printFrame(ts, CHANNEL_NAMES[channel], channels.getFrame(channel));
+                    }
+                }
+                channels.clearReady();
                 break;
             default:
                 System.exit(EXIT_FAILURE);
@@ -137,6 +233,50 @@ public class TextTrack {
         }
     }
 
+    /**
+     * Prints the text of a caption frame ready to display, encoding it straight from the frame into the output buffer.
+     * Captions are tagged with their program number when the stream carries more than one program.
+     * @param ts The transport system handling the stream packets.
+     * @param channel The name of the CEA-608 channel of the frame, or {@code null} when only CC1 is decoded.
+     * @param frame The caption frame to print.
+     */
+    private static void printFrame(TransportSystem ts, String channel, CaptionFrame frame) {
+        printHeader(ts);
+        if (channel != null) {
+            OUT.print("channel: ").println(channel);
+        }
+        OUT.print("data:\n").print(frame).println();
+        OUT.flush();
+    }
+
+    /**
+     * Prints the text displayed by a CEA-708 service after it changed.
+     * Captions are tagged with their program number when the stream carries more than one program.
+     * @param ts The transport system handling the stream packets.
+     * @param service The service whose display changed.
+     */
+    private static void printService(TransportSystem ts, DtvccService service) {
+        printHeader(ts);
+        OUT.print("service: ").print(service.getServiceNumber()).println();
+        OUT.print("data:\n").print(service.toText()).println();
+        OUT.flush();
+    }
+
+    /**
+     * Starts the output of a caption with a separator line and, when the stream carries more than one program,
+     * the program number.
+     * The standard output stream is flushed first so the captions stay in order with the messages printed
+     * by the decoders.
+     * @param ts The transport system handling the stream packets.
+     */
+    private static void printHeader(TransportSystem ts) {
+        System.out.flush();
+        OUT.println("-------------------------------");
+        if (ts.getPrograms().size() > 1) {
+            OUT.print("program: ").print(ts.getProgram().getProgramNumber()).println();
+        }
+    }
+
     /**
      * Logs the processing time from the start to the end of the application run.
      * @param startTime The start time of the processing in nanoseconds.
@@ -146,4 +286,30 @@ public class TextTrack {
         double durationInSeconds = (endTime - startTime) / 1_000_000_000.0;
         // System.out.println("Processing time: " + durationInSeconds);
     }
+
+    /**
+     * Holds the MPEG bitstream and caption frame that decode the captions of a single program,
+     * and optionally the decoders of its other CEA-608 channels and of its CEA-708 services.
+     */
+    private static final class ProgramDecoder {
+        private final MpegBitStream mpegbs = new MpegBitStream();
+        private final CaptionFrame frame = new CaptionFrame();
+
+        private ProgramDecoder(TransportSystem ts, DecoderOptions options) {
+            if (options.channels()) {
+                mpegbs.setCaptionChannels(new CaptionChannels());
+            }
+            if (options.dtvcc()) {
+                mpegbs.setDtvcc(new Dtvcc((service, timestamp) -> printService(ts, service)));
+            }
+        }
+    }
+
+    /**
+     * The captions decoded for every program.
+     * @param dtvcc Whether to decode the CEA-708 services as well.
+     * @param channels Whether to decode the four CEA-608 channels instead of CC1 only.
+     */
+    private record DecoderOptions(boolean dtvcc, boolean channels) {
+    }
 }
\ No newline at end of file
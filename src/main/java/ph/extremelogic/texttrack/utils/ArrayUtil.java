@@ -8,8 +8,8 @@ import static java.lang.System.arraycopy;
  * Utility class providing static methods to manipulate arrays.
  * <p>
  * This class contains methods for array operations that are not directly available
- * within the Java standard library. These methods include shifting elements within
- * an array and resizing arrays. The class is designed to be used statically and
+ * within the Java standard library. These methods include swapping elements within
+ * an array and concatenating arrays. The class is designed to be used statically and
  * is not intended to be instantiated.
  * </p>
  */
@@ -27,22 +27,6 @@ public class ArrayUtil {
         // Prevent instantiation
     }
 
-    /**
-     * Shifts all elements of the given byte array one position to the left and shrinks the array size by one.
-     * This method effectively removes the first element of the array and returns a new array with one less element,
-     * containing the remaining elements. If the input array is empty, it immediately returns the same array without changes.
-     *
-     * @param array The byte array to shift and shrink. If the array is empty, it is returned as is.
-     * @return A new byte array with the elements shifted left by one position, with the size decreased by one.
-     *         If the input array is empty, the same array is returned.
-     */
-    public static byte[] shiftLeftAndShrink(byte[] array) {
-        if (array.length == 0) return array; // Return if empty
-        byte[] newArray = new byte[array.length - 1];
-        System.arraycopy(array, 1, newArray, 0, newArray.length);
-        return newArray;
-    }
-
     /**
      * Swaps two elements in an array of any type.
      *
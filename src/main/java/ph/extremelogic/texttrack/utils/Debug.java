@@ -3,6 +3,16 @@ package ph.extremelogic.texttrack.utils;
 import ph.extremelogic.texttrack.TextTrack;
 
 public class Debug {
+    /**
+     * Tells whether tracing is on. Hot paths check it before building a trace message,
+     * since the message is otherwise built even when nothing is printed.
+     *
+     * @return {@code true} if trace messages are printed
+     */
+    public static boolean enabled() {
+        return TextTrack.debug;
+    }
+
     public static void print(String data) {
         print(data, false);
     }
@@ -18,9 +28,13 @@ public class Debug {
     }
 
     public static void printDataArray(byte[] data, int size) {
-        if (size > 200) return;
+        printDataArray(data, 0, size);
+    }
+
+    public static void printDataArray(byte[] data, int offset, int size) {
+        if (!TextTrack.debug || size > 200) return;
         print("Data array: [", true);
-        for (int i = 0; i < size; i++) {
+        for (int i = offset; i < offset + size; i++) {
             print(String.format("%02X ", data[i] & 0xFF), true);
         }
         print("] SIZE: " + size, false);
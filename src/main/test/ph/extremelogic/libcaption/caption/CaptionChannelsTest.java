@@ -0,0 +1,79 @@
+package ph.extremelogic.libcaption.caption;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ph.extremelogic.libcaption.eia608.Eia608Decoder.eia608Parity;
+
+public class CaptionChannelsTest {
+    private static final int RESUME_DIRECT_CAPTIONING = 0x1429;
+    private static final int SECOND_CHANNEL = 0x0800;
+    private static final int FIELD_2 = 0x0100;
+
+    private final CaptionChannels channels = new CaptionChannels();
+
+    @Test
+    public void testInterleavedChannelsOfOneField() {
+        decode(0, RESUME_DIRECT_CAPTIONING);
+        decode(0, 'H' << 8 | 'I');
+        decode(0, RESUME_DIRECT_CAPTIONING | SECOND_CHANNEL);
+        decode(0, 'H' << 8 | 'O');
+        decode(0, 'L' << 8 | 'A');
+        decode(0, RESUME_DIRECT_CAPTIONING);
+        decode(0, '!' << 8);
+
+        assertEquals("HI!\n", channels.getFrame(0).toText());
+        assertEquals("HOLA\n", channels.getFrame(1).toText());
+        assertEquals("", channels.getFrame(2).toText());
+        assertEquals(0b0011, channels.getReadyChannels());
+    }
+
+    @Test
+    public void testSecondFieldChannels() {
+        decode(1, RESUME_DIRECT_CAPTIONING | FIELD_2);
+        decode(1, 'C' << 8 | '3');
+        decode(1, RESUME_DIRECT_CAPTIONING | SECOND_CHANNEL);
+        decode(1, 'C' << 8 | '4');
+
+        assertEquals("", channels.getFrame(0).toText());
+        assertEquals("C3\n", channels.getFrame(2).toText());
+        assertEquals("C4\n", channels.getFrame(3).toText());
+        assertTrue(channels.isReady(2));
+        assertTrue(channels.isReady(3));
+
+        channels.clearReady();
+        assertFalse(channels.isReady(2));
+    }
+
+    @Test
+    public void testExtendedDataServicesAreNotCaptionText() {
+        decode(1, RESUME_DIRECT_CAPTIONING);
+        decode(1, 'A' << 8);
+        // XDS start, packet bytes, end: none of it is caption text
+        decode(1, 0x0101);
+        decode(1, 'X' << 8 | 'D');
+        decode(1, 0x0F00);
+        decode(1, 'B' << 8);
+        decode(1, RESUME_DIRECT_CAPTIONING);
+        decode(1, 'C' << 8);
+
+        assertEquals("AC\n", channels.getFrame(2).toText());
+    }
+
+    @Test
+    public void testPaddingAndParityErrors() {
+        decode(0, RESUME_DIRECT_CAPTIONING);
+        assertEquals(LibCaptionStatus.OK, channels.decode(0, 0x8080, 0));
+        assertEquals(LibCaptionStatus.OK, channels.decode(0, 'A' << 8 | 'B', 0));
+        assertEquals("", channels.getFrame(0).toText());
+        assertEquals(LibCaptionStatus.READY, decode(0, 'A' << 8 | 'B'));
+        assertEquals("AB\n", channels.getFrame(0).toText());
+    }
+
+    private LibCaptionStatus decode(int field, int word) {
+        return channels.decode(field, eia608Parity(word), 0);
+    }
+}
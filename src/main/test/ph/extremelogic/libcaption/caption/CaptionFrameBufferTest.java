@@ -0,0 +1,52 @@
+package ph.extremelogic.libcaption.caption;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ph.extremelogic.libcaption.caption.CaptionFrame.SCREEN_COLS;
+import static ph.extremelogic.libcaption.caption.CaptionFrame.SCREEN_ROWS;
+
+public class CaptionFrameBufferTest {
+    @Test
+    public void testCellAttributes() {
+        CaptionFrameBuffer buffer = new CaptionFrameBuffer();
+        buffer.set(14, 31, 0x266A, 7, true);
+
+        assertEquals(0x266A, buffer.getCodePoint(14, 31));
+        assertEquals(7, buffer.getStyle(14, 31));
+        assertTrue(buffer.isUnderline(14, 31));
+        assertEquals(0, buffer.getCodePoint(14, 30));
+        assertFalse(buffer.isUnderline(14, 30));
+    }
+
+    @Test
+    public void testRowOperations() {
+        CaptionFrameBuffer buffer = new CaptionFrameBuffer();
+        for (int row = 0; row < SCREEN_ROWS; row++) {
+            buffer.set(row, 0, 'A' + row, row % 8, false);
+        }
+
+        buffer.scrollUp(11);
+        assertEquals('A' + 10, buffer.getCodePoint(10, 0));
+        assertEquals('A' + 12, buffer.getCodePoint(11, 0));
+        assertEquals('A' + 14, buffer.getCodePoint(13, 0));
+        assertEquals(0, buffer.getCodePoint(14, 0));
+
+        buffer.set(14, 1, 'Z', 0, false);
+        assertEquals('Z', buffer.getCodePoint(14, 1));
+        assertEquals(0, buffer.getCodePoint(11, 1));
+
+        CaptionFrameBuffer copy = new CaptionFrameBuffer();
+        copy.copyFrom(buffer);
+        buffer.clear();
+        assertEquals('A' + 13, copy.getCodePoint(12, 0));
+        assertEquals(13 % 8, copy.getStyle(12, 0));
+        for (int row = 0; row < SCREEN_ROWS; row++) {
+            for (int col = 0; col < SCREEN_COLS; col++) {
+                assertEquals(0, buffer.getCodePoint(row, col));
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ph.extremelogic.libcaption.caption;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ph.extremelogic.libcaption.eia608.Eia608Decoder.eia608Parity;
+
+public class CaptionFrameTest {
+    private static final int RESUME_CAPTION_LOADING = 0x1420;
+    private static final int RESUME_DIRECT_CAPTIONING = 0x1429;
+    private static final int END_OF_CAPTION = 0x142F;
+    private static final int ROLL_UP_2 = 0x1425;
+    private static final int CARRIAGE_RETURN = 0x142D;
+    private static final int REGISTERED_MARK = 0x1130;
+
+    private final CaptionFrame frame = new CaptionFrame();
+
+    @Test
+    public void testEndOfCaptionSwapsBuffers() {
+        decode(RESUME_CAPTION_LOADING);
+        decode('O' << 8 | 'N');
+        decode('E' << 8);
+        assertEquals("", frame.toText());
+
+        assertEquals(LibCaptionStatus.READY, decode(END_OF_CAPTION));
+        assertEquals("ONE\n", frame.toText());
+
+        // Loading continues in the back buffer, which starts empty
+        decode('T' << 8 | 'W');
+        decode('O' << 8);
+        assertEquals("ONE\n", frame.toText());
+        decode(END_OF_CAPTION);
+        assertEquals("TWO\n", frame.toText());
+        assertFalse(frame.paintOn());
+    }
+
+    @Test
+    public void testEndOfCaptionWhilePainting() {
+        decode(RESUME_DIRECT_CAPTIONING);
+        decode('P' << 8 | 'A');
+        assertEquals("PA\n", frame.toText());
+
+        decode(END_OF_CAPTION);
+        assertEquals("", frame.toText());
+
+        // Painting continues on the displayed buffer
+        decode('I' << 8 | 'N');
+        assertEquals("IN\n", frame.toText());
+    }
+
+    @Test
+    public void testChangedRowsOfRollUp() {
+        decode(ROLL_UP_2);
+        decode('O' << 8 | 'N');
+        decode('E' << 8);
+        assertEquals(1 << 14, frame.changedRows());
+        assertEquals(0, frame.changedRows());
+
+        decode(CARRIAGE_RETURN);
+        assertEquals(0b11 << 13, frame.changedRows());
+        assertEquals("ONE", frame.getRowText(13));
+        assertNull(frame.getRowText(14));
+
+        decode('T' << 8 | 'W');
+        assertEquals(1 << 14, frame.changedRows());
+        assertEquals("ONE\nTW\n", frame.toText());
+    }
+
+    @Test
+    public void testWriteTextMatchesToText() throws IOException {
+        decode(ROLL_UP_2);
+        decode('O' << 8 | 'N');
+        decode('E' << 8);
+        decode(CARRIAGE_RETURN);
+        decode('T' << 8 | 'M');
+        decode(REGISTERED_MARK);
+        String text = frame.toText();
+        assertEquals("ONE\nTM\u00AE\n", text);
+
+        CharBuffer chars = CharBuffer.allocate(64);
+        frame.appendText(chars);
+        assertEquals(text, chars.flip().toString());
+
+        byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected.length, frame.textLength());
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        assertEquals(expected.length, frame.writeText(bytes));
+        assertEquals(ByteBuffer.wrap(expected), bytes.flip());
+
+        // A buffer too small for the whole text is left untouched
+        ByteBuffer small = ByteBuffer.allocate(expected.length - 1);
+        assertThrows(BufferOverflowException.class, () -> frame.writeText(small));
+        assertEquals(0, small.position());
+    }
+
+    private LibCaptionStatus decode(int word) {
+        return frame.decode(eia608Parity(word), 0);
+    }
+}
@@ -0,0 +1,63 @@
+package ph.extremelogic.libcaption.cea708;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.constant.CcType;
+import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Cea708ParseTest {
+    private static final byte[] GA94 = {(byte) 0xB5, 0x00, 0x31, 'G', 'A', '9', '4'};
+
+    @Test
+    public void testCcData() {
+        byte[] payload = payload(GA94, 0x03, 0x41, 0xFF, 0xFC, 0x94, 0x2C);
+        Cea708Data cea708Data = new Cea708Data();
+
+        assertEquals(LibCaptionStatus.OK, Cea708.parseH264(payload, payload.length, cea708Data));
+        assertTrue(Cea708.hasCcData(cea708Data));
+        assertEquals(1, cea708Data.getUserData().getCcCount());
+        assertEquals(CcType.NTSC_CC_FIELD_1, cea708Data.getUserData().getCcType(0));
+        assertEquals(0x942C, cea708Data.getUserData().getCcData(0));
+    }
+
+    @Test
+    public void testAfdDataIsSkipped() {
+        byte[] payload = payload(GA94, 0x06, 0x41, 0xF8);
+        Cea708Data cea708Data = new Cea708Data();
+        cea708Data.init(0);
+
+        assertEquals(LibCaptionStatus.OK, Cea708.parseH264(payload, payload.length, cea708Data));
+        assertFalse(Cea708.hasCcData(cea708Data));
+        assertEquals(0, cea708Data.getUserData().getCcCount());
+    }
+
+    @Test
+    public void testUnknownProviderIsSkipped() {
+        byte[] payload = {(byte) 0xB5, 0x00, 0x01, 0x03, 0x41};
+        Cea708Data cea708Data = new Cea708Data();
+
+        assertEquals(LibCaptionStatus.OK, Cea708.parseH264(payload, payload.length, cea708Data));
+        assertNull(cea708Data.getProvider());
+        assertFalse(Cea708.hasCcData(cea708Data));
+    }
+
+    @Test
+    public void testTruncatedPayload() {
+        byte[] payload = payload(GA94, 0x03);
+        assertEquals(LibCaptionStatus.ERROR, Cea708.parseH264(payload, payload.length, new Cea708Data()));
+        assertEquals(LibCaptionStatus.ERROR, Cea708.parseH264(GA94, 5, new Cea708Data()));
+    }
+
+    private static byte[] payload(byte[] header, int... bytes) {
+        byte[] payload = new byte[header.length + bytes.length];
+        System.arraycopy(header, 0, payload, 0, header.length);
+        for (int i = 0; i < bytes.length; i++) {
+            payload[header.length + i] = (byte) bytes[i];
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,90 @@
+package ph.extremelogic.libcaption.cea708;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.constant.CcType;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DtvccTest {
+    private final List<String> displays = new ArrayList<>();
+    private final Dtvcc dtvcc = new Dtvcc((service, timestamp) ->
+            displays.add(service.getServiceNumber() + ":" + service.toText()));
+
+    /** DefineWindow 0, visible, 2 rows of 32 columns. */
+    private static final byte[] DEFINE_VISIBLE_WINDOW = {(byte) 0x98, 0x20, 0x00, 0x00, 0x01, 0x1F, 0x00};
+
+    @Test
+    public void testDecodesTextOfVisibleWindow() {
+        send(0, 1, concat(DEFINE_VISIBLE_WINDOW, "Hello".getBytes(), new byte[] {0x0D}, "World".getBytes()));
+
+        assertEquals(List.of("1:Hello\nWorld\n"), displays);
+    }
+
+    @Test
+    public void testHiddenWindowIsShownByDisplayWindows() {
+        byte[] defineHidden = DEFINE_VISIBLE_WINDOW.clone();
+        defineHidden[1] = 0x00;
+        send(0, 3, concat(defineHidden, "Pop-on".getBytes()));
+        assertEquals(List.of(), displays);
+
+        // DisplayWindows(0), then ClearWindows(0)
+        send(1, 3, new byte[] {(byte) 0x89, 0x01});
+        send(2, 3, new byte[] {(byte) 0x88, 0x01});
+        assertEquals(List.of("3:Pop-on\n", "3:"), displays);
+    }
+
+    @Test
+    public void testPacketSpanningSeveralFrames() {
+        byte[] packet = packet(0, 2, concat(DEFINE_VISIBLE_WINDOW, "Split across frames".getBytes()));
+        for (int i = 0; i < packet.length; i += 2) {
+            CcType type = i == 0 ? CcType.DTVCC_PACKET_START : CcType.DTVCC_PACKET_DATA;
+            dtvcc.decode(type, ((packet[i] & 0xFF) << 8) | (packet[i + 1] & 0xFF), i);
+            assertEquals(i + 2 < packet.length ? 0 : 1, displays.size());
+        }
+        assertEquals("2:Split across frames\n", displays.get(0));
+    }
+
+    @Test
+    public void testExtendedCharactersAndInterruptedPacket() {
+        // EXT1 + G2 0x39 (trade mark sign) and a G0 music note
+        send(0, 1, concat(DEFINE_VISIBLE_WINDOW, new byte[] {'A', 0x10, 0x39, 0x7F}));
+        assertEquals(List.of("1:A\u2122\u266A\n"), displays);
+
+        // A packet start interrupting a packet drops it
+        byte[] packet = packet(1, 1, "lost".getBytes());
+        dtvcc.decode(CcType.DTVCC_PACKET_START, ((packet[0] & 0xFF) << 8) | (packet[1] & 0xFF), 0);
+        send(2, 1, new byte[] {'!'});
+        assertEquals(1, dtvcc.getDroppedPackets());
+        assertEquals("1:A\u2122\u266A!\n", displays.get(1));
+    }
+
+    private void send(int sequence, int service, byte[] block) {
+        byte[] packet = packet(sequence, service, block);
+        for (int i = 0; i < packet.length; i += 2) {
+            CcType type = i == 0 ? CcType.DTVCC_PACKET_START : CcType.DTVCC_PACKET_DATA;
+            dtvcc.decode(type, ((packet[i] & 0xFF) << 8) | (packet[i + 1] & 0xFF), 0);
+        }
+    }
+
+    private static byte[] packet(int sequence, int service, byte[] block) {
+        int size = block.length + 2;
+        size += size % 2;
+        byte[] packet = new byte[size];
+        packet[0] = (byte) ((sequence << 6) | (size / 2));
+        packet[1] = (byte) ((service << 5) | block.length);
+        System.arraycopy(block, 0, packet, 2, block.length);
+        return packet;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,11 +1,18 @@
 package ph.extremelogic.libcaption.eia608;
 
 import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.caption.CaptionFrame;
 
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static ph.extremelogic.libcaption.eia608.Eia608Decoder.eia608IsControl;
-import static ph.extremelogic.libcaption.eia608.Eia608Decoder.eia608IsWestEU;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static ph.extremelogic.libcaption.constant.Eia608CharConstants.EIA608_CHAR_COUNT;
+import static ph.extremelogic.libcaption.constant.Eia608CharMap.EIA608_CHAR_MAP;
+import static ph.extremelogic.libcaption.eia608.Eia608.*;
+import static ph.extremelogic.libcaption.eia608.Eia608Decoder.*;
 
 class Eia608Test {
 
@@ -252,5 +259,113 @@ class Eia608Test {
         assertTrue(eia608IsControl(37925));
         assertTrue(eia608IsControl(38061));
     }
-}
 
+    @Test
+    void testClassify() {
+        assertEquals(CLASS_PARITY_ERROR, eia608Classify(0x1420));
+        assertEquals(CLASS_PADDING, eia608Classify(0x8080));
+        assertEquals(CLASS_CONTROL, eia608Classify(37925));
+        assertEquals(CLASS_CONTROL, eia608Classify(eia608Parity(0x1D2F)));
+        assertEquals(CLASS_SPECIAL_TEXT, eia608Classify(eia608Parity(0x1137)));
+        assertEquals(CLASS_BASIC_TEXT, eia608Classify(eia608Parity(0x4142)));
+        assertEquals(CLASS_EXTENDED_TEXT, eia608Classify(eia608Parity(0x1220)));
+        assertEquals(CLASS_EXTENDED_TEXT, eia608Classify(eia608Parity(0x1B3F)));
+        assertEquals(CLASS_PREAMBLE, eia608Classify(eia608Parity(0x1470)));
+        assertEquals(CLASS_MIDROW, eia608Classify(eia608Parity(0x112E)));
+        assertEquals(CLASS_XDS, eia608Classify(eia608Parity(0x0101)));
+        assertEquals(CLASS_OTHER, eia608Classify(eia608Parity(0x1000)));
+    }
+
+    @Test
+    void testCharMap() {
+        assertEquals(EIA608_CHAR_COUNT, EIA608_CHAR_MAP.length);
+        assertEquals(" ", utf8FromIndex(0));
+        assertEquals("\u2019", utf8FromIndex(0x27 - 0x20));
+        assertEquals("\u266A", utf8FromIndex(0x60 + 7));
+        assertEquals("\u00EA", utf8FromIndex(0x60 + 12));
+        assertEquals("\\", utf8FromIndex(0x90 + 11));
+        assertEquals("", utf8FromIndex(EIA608_CHAR_COUNT));
+        assertEquals('A', charFromIndex('A' - 0x20));
+        assertEquals(0, charFromIndex(-1));
+    }
+
+    @Test
+    void testPackedText() {
+        int text = eia608ToIndex(eia608Parity(0x4142));
+        assertEquals(2, eia608IndexCount(text));
+        assertEquals('A' - 0x20, eia608IndexFirst(text));
+        assertEquals('B' - 0x20, eia608IndexSecond(text));
+        assertEquals(0, eia608IndexChannel(text));
+
+        text = eia608ToIndex(eia608Parity(0x1937));
+        assertEquals(1, eia608IndexCount(text));
+        assertEquals(0x60 + 7, eia608IndexFirst(text));
+        assertEquals(-1, eia608IndexSecond(text));
+        assertEquals(1, eia608IndexChannel(text));
+
+        assertEquals(0, eia608IndexCount(eia608ToIndex(eia608Parity(0x142C))));
+    }
+
+    @Test
+    void testPackedPreambleAndMidrow() {
+        // Row 15, indent 8, underlined
+        int preamble = eia608DecodePreamble(eia608Parity(0x1474) | 0x0001);
+        assertEquals(14, eia608PreambleRow(preamble));
+        assertEquals(8, eia608PreambleCol(preamble));
+        assertEquals(Eia608Style.WHITE.getValue(), eia608PreambleStyle(preamble));
+        assertTrue(eia608PreambleUnderline(preamble));
+
+        // Row 1, yellow
+        preamble = eia608DecodePreamble(eia608Parity(0x114A));
+        assertEquals(0, eia608PreambleRow(preamble));
+        assertEquals(0, eia608PreambleCol(preamble));
+        assertEquals(Eia608Style.YELLOW.getValue(), eia608PreambleStyle(preamble));
+        assertFalse(eia608PreambleUnderline(preamble));
+
+        int midrow = eia608DecodeMidrowChange(eia608Parity(0x112F));
+        assertEquals(Eia608Style.ITALICS.getValue(), eia608MidrowStyle(midrow));
+        assertTrue(eia608MidrowUnderline(midrow));
+    }
+
+    @Test
+    void testUnknownControl() {
+        assertEquals(Eia608Control.CONTROL_END_OF_CAPTION, Eia608Control.fromInt(0x142F));
+        assertEquals(Eia608Control.TAB_OFFSET_3, Eia608Control.fromInt(0x1723));
+        assertEquals(Eia608Control.UNKNOWN, Eia608Control.fromInt(0x1724));
+        assertEquals(Eia608Control.UNKNOWN, Eia608Control.fromInt(0));
+        assertEquals(Eia608Control.UNKNOWN, Eia608Control.fromInt(-1));
+        assertEquals(Eia608Control.CONTROL_ROLL_UP_2, eia608ParseControl(eia608Parity(0x1D25)));
+
+        CaptionFrame frame = new CaptionFrame();
+        frame.decode(eia608Parity(0x1724), 0);
+        frame.decode(eia608Parity(0x1F2C), 0);
+        assertEquals(2, frame.getUnknownControlCount());
+    }
+
+    @Test
+    void testPackedTextPathDoesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // Basic, special and extended characters on both channels
+        int[] words = {eia608Parity(0x4142), eia608Parity(0x1137), eia608Parity(0x1220), eia608Parity(0x1B3F)};
+        CaptionFrame frame = new CaptionFrame();
+        frame.decode(eia608Parity(0x1429), 0);
+
+        final int iterations = 100_000;
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += eia608ToIndex(words[i & 3]);
+        }
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < iterations; i++) {
+            sink += eia608ToIndex(words[i & 3]);
+            frame.decodeText(words[i & 1]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+        // Allow for the measurement itself, far below a single allocation per call
+        assertTrue(allocated < iterations, "allocated " + allocated + " bytes, checksum " + sink);
+    }
+}
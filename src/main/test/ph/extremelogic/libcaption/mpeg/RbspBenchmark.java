@@ -0,0 +1,89 @@
+package ph.extremelogic.libcaption.mpeg;
+
+import ph.extremelogic.libcaption.Mpeg;
+import ph.extremelogic.libcaption.Rbsp;
+
+/**
+ * Compares the single pass {@link Rbsp} unescaper with the segment by segment copy built on
+ * {@link Mpeg#findEmulationPreventionByte(byte[], int, int)} that it replaces, on the cc_data vector of
+ * {@link RbspTest} as is and with an emulation prevention byte after every {@code 00 00}.
+ * <p>
+ * Run its {@code main} method with the main and test classes on the class path. Each case is warmed up before
+ * being timed, and the results are accumulated into a checksum so the work cannot be optimized away.
+ */
+public class RbspBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private static int checksum;
+
+    public static void main(String[] args) {
+        byte[] plain = RbspTest.CC_DATA;
+        byte[] escaped = escape(plain);
+
+        run("segments, plain cc_data", plain, false);
+        run("single pass, plain cc_data", plain, true);
+        run("segments, escaped cc_data", escaped, false);
+        run("single pass, escaped cc_data", escaped, true);
+        System.out.println("checksum " + checksum);
+    }
+
+    private static void run(String name, byte[] src, boolean singlePass) {
+        int payloadSize = Rbsp.unescape(src, 0, src.length, new byte[src.length], 0) - 1;
+        byte[] dst = new byte[payloadSize];
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += unescape(src, dst, payloadSize, singlePass);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += unescape(src, dst, payloadSize, singlePass);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-30s %8.2f ns/op%n", name, (double) elapsed / ITERATIONS);
+    }
+
+    private static int unescape(byte[] src, byte[] dst, int payloadSize, boolean singlePass) {
+        if (singlePass) {
+            return Rbsp.unescapePayload(src, 0, src.length, dst, 0, payloadSize);
+        }
+
+        // The former Mpeg.copyToRbsp loop, searching for the next emulation prevention byte for every segment
+        int srcOffset = 0;
+        int srcSize = src.length;
+        int destOffset = 0;
+        int destSize = payloadSize;
+        int totalSize = 0;
+        while (true) {
+            if (destSize >= srcSize) {
+                return 0;
+            }
+            int toCopy = Mpeg.findEmulationPreventionByte(src, srcOffset, destSize);
+            System.arraycopy(src, srcOffset, dst, destOffset, toCopy);
+            totalSize += toCopy;
+            destOffset += toCopy;
+            destSize -= toCopy;
+            if (destSize == 0) {
+                return totalSize;
+            }
+            totalSize += 1;
+            srcOffset += toCopy + 1;
+            srcSize -= toCopy + 1;
+        }
+    }
+
+    private static byte[] escape(byte[] data) {
+        byte[] escaped = new byte[data.length * 2];
+        int size = 0;
+        int zeros = 0;
+        for (byte b : data) {
+            if (zeros == 2) {
+                escaped[size++] = 0x03;
+                zeros = 0;
+            }
+            escaped[size++] = b;
+            zeros = b == 0 ? zeros + 1 : 0;
+        }
+        return java.util.Arrays.copyOf(escaped, size);
+    }
+}
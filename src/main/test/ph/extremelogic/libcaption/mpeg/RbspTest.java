@@ -0,0 +1,56 @@
+package ph.extremelogic.libcaption.mpeg;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.Rbsp;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RbspTest {
+
+    /** A CEA-708 cc_data payload without emulation prevention bytes, also used by {@link RbspBenchmark}. */
+    static final byte[] CC_DATA = {
+            (byte) 0xB5, (byte) 0x00, 0x2F, 0x03, 0x3F, (byte) 0xD4, (byte) 0xFF, (byte) 0xFC, (byte) 0x80, (byte) 0x80,
+            (byte) 0xFD, (byte) 0x80, (byte) 0x80, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00,
+            (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA,
+            0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00,
+            (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA,
+            0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00, (byte) 0xFA, 0x00, 0x00,
+            (byte) 0xFF
+    };
+
+    @Test
+    public void testUnescapedDataIsCopiedAsIs() {
+        byte[] data = CC_DATA;
+        byte[] rbsp = new byte[data.length];
+
+        assertEquals(-1, Rbsp.indexOfEmulationPreventionByte(data, 0, data.length));
+        assertEquals(data.length, Rbsp.unescape(data, 0, data.length, rbsp, 0));
+        assertArrayEquals(data, rbsp);
+    }
+
+    @Test
+    public void testUnescapeInPlace() {
+        byte[] data = {0x11, 0x00, 0x00, 0x03, 0x00, 0x00, 0x00, 0x03, 0x01, 0x00, 0x03, 0x00, 0x00, 0x03};
+
+        assertEquals(3, Rbsp.indexOfEmulationPreventionByte(data, 0, data.length));
+        int size = Rbsp.unescapeInPlace(data, 0, data.length);
+        assertArrayEquals(new byte[] {0x11, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x03, 0x00, 0x00},
+                Arrays.copyOf(data, size));
+    }
+
+    @Test
+    public void testUnescapePayload() {
+        byte[] data = {0x00, 0x00, 0x03, 0x01, 0x00, 0x00, 0x03, 0x02, 0x44, (byte) 0x80};
+        byte[] payload = new byte[6];
+
+        assertEquals(8, Rbsp.unescapePayload(data, 0, data.length, payload, 0, payload.length));
+        assertArrayEquals(new byte[] {0x00, 0x00, 0x01, 0x00, 0x00, 0x02}, payload);
+
+        // The escaped data must outlast the payload
+        assertEquals(0, Rbsp.unescapePayload(data, 0, 8, payload, 0, payload.length));
+        assertEquals(0, Rbsp.unescapePayload(data, 0, 5, payload, 0, payload.length));
+    }
+}
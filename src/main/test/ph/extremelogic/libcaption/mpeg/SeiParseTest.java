@@ -0,0 +1,72 @@
+package ph.extremelogic.libcaption.mpeg;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.Mpeg;
+import ph.extremelogic.libcaption.constant.LibCaptionStatus;
+import ph.extremelogic.libcaption.constant.SeiMessageType;
+import ph.extremelogic.libcaption.model.Sei;
+import ph.extremelogic.libcaption.model.SeiMessage;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SeiParseTest {
+
+    @Test
+    public void testParsesEveryMessageInPlace() {
+        byte[] data = {
+                0x55, 0x55,                                         // bytes before the SEI
+                0x04, 0x04, (byte) 0xB5, 0x00, 0x31, 0x47,          // T.35 message
+                0x05, 0x02, 0x11, 0x22,                             // unregistered user data
+                (byte) 0x80                                         // trailing bits
+        };
+        Sei sei = new Sei(0);
+
+        assertEquals(LibCaptionStatus.OK, Mpeg.seiParse(sei, data, 2, data.length - 2, 1.5));
+        assertEquals(2, sei.getMessages().size());
+
+        SeiMessage first = sei.getMessages().get(0);
+        assertEquals(SeiMessageType.SEI_TYPE_USER_DATA_REGISTERED_ITU_T_T_35, first.getType());
+        assertSame(data, first.getPayload());
+        assertEquals(4, first.getOffset());
+        assertEquals(4, first.getSize());
+
+        SeiMessage second = sei.getMessages().get(1);
+        assertEquals(SeiMessageType.SEI_TYPE_USER_DATA_UNREGISTERED, second.getType());
+        assertSame(data, second.getPayload());
+        assertEquals(10, second.getOffset());
+        assertEquals(2, second.getSize());
+    }
+
+    @Test
+    public void testRemovesEmulationPreventionBytes() {
+        byte[] data = {
+                0x04, 0x07, (byte) 0xB5, 0x00, 0x00, 0x03, 0x01, 0x00, 0x00, 0x03, 0x02,
+                0x05, 0x01, 0x33,
+                (byte) 0x80
+        };
+        Sei sei = new Sei(0);
+
+        assertEquals(LibCaptionStatus.OK, Mpeg.seiParse(sei, data, data.length, 0));
+        assertEquals(2, sei.getMessages().size());
+
+        SeiMessage first = sei.getMessages().get(0);
+        byte[] payload = Arrays.copyOfRange(first.getPayload(), first.getOffset(), first.getOffset() + first.getSize());
+        assertArrayEquals(new byte[] {(byte) 0xB5, 0x00, 0x00, 0x01, 0x00, 0x00, 0x02}, payload);
+
+        SeiMessage second = sei.getMessages().get(1);
+        assertSame(data, second.getPayload());
+        assertEquals(13, second.getOffset());
+    }
+
+    @Test
+    public void testTruncatedPayload() {
+        byte[] data = {0x04, 0x08, (byte) 0xB5, 0x00, 0x31};
+        Sei sei = new Sei(0);
+
+        assertEquals(LibCaptionStatus.ERROR, Mpeg.seiParse(sei, data, data.length, 0));
+    }
+}
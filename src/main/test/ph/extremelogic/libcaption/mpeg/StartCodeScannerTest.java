@@ -0,0 +1,52 @@
+package ph.extremelogic.libcaption.mpeg;
+
+import org.junit.jupiter.api.Test;
+import ph.extremelogic.libcaption.StartCodeScanner;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StartCodeScannerTest {
+
+    @Test
+    public void testFindStartCode() {
+        byte[] data = {
+                0x00, 0x00, 0x00, 0x01, 0x09, (byte) 0xF0, 0x00, 0x00, 0x01, 0x06, 0x04, 0x47
+        };
+
+        assertEquals(1, StartCodeScanner.find(data, 0, data.length));
+        assertEquals(6, StartCodeScanner.find(data, 2, data.length));
+        assertEquals(-1, StartCodeScanner.find(data, 2, 8));
+        assertEquals(6, StartCodeScanner.find(data, 2, 9));
+        assertEquals(-1, StartCodeScanner.find(data, 7, data.length));
+    }
+
+    @Test
+    public void testMatchesScalarScanner() {
+        Random random = new Random(42);
+        byte[] data = new byte[4096];
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < data.length; i++) {
+                // Mostly zeros and ones, so that partial and overlapping start codes are frequent
+                int value = random.nextInt(8);
+                data[i] = (byte) (value < 3 ? 0 : value < 5 ? 1 : random.nextInt(256));
+            }
+            direct.clear();
+            direct.put(data);
+
+            for (int check = 0; check < 50; check++) {
+                int from = random.nextInt(data.length);
+                int end = from + random.nextInt(data.length - from + 1);
+                int expected = StartCodeScanner.findScalar(data, from, end);
+
+                assertEquals(expected, StartCodeScanner.find(data, from, end));
+                assertEquals(expected, StartCodeScanner.find(ByteBuffer.wrap(data), from, end));
+                assertEquals(expected, StartCodeScanner.find(direct, from, end));
+            }
+        }
+    }
+}
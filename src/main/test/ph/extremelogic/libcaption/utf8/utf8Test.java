@@ -3,6 +3,10 @@ package ph.extremelogic.libcaption.utf8;
 import org.junit.jupiter.api.Test;
 import ph.extremelogic.libcaption.Utf8;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static ph.extremelogic.libcaption.Utf8.utf8CharLength;
 
@@ -79,4 +83,21 @@ class utf8Test {
         assertEquals(3, Utf8.utf8CharCopy(smallDst, src));
         assertArrayEquals(new byte[2], smallDst); // Should not have been modified
     }
+
+    @Test
+    void testUtf8Encode() {
+        String text = "A\u00E9\u20AC\uD83D\uDE00";
+        byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+        assertEquals(10, Utf8.utf8EncodedLength(text));
+
+        ByteBuffer dst = ByteBuffer.allocate(16);
+        assertEquals(expected.length, Utf8.utf8Encode(text, dst));
+        assertEquals(ByteBuffer.wrap(expected), dst.flip());
+
+        // Test buffer too small, nothing is written
+        ByteBuffer small = ByteBuffer.allocate(3);
+        assertThrows(BufferOverflowException.class, () -> Utf8.utf8Encode(0x1F600, small));
+        assertEquals(0, small.position());
+        assertEquals(3, Utf8.utf8Encode(0x20AC, small));
+    }
 }